@@ -0,0 +1,75 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import org.openjdk.jmh.annotations.*;
+import org.tahomarobotics.robot.RobotConfiguration;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * One odometry update of a robot driving an arc, through {@link SwerveOdometry} with and without a valid yaw,
+ * and through the bare WPILib estimator for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OdometryBenchmark {
+    private static final Translation2d[] OFFSETS = {FRONT_LEFT_OFFSET, FRONT_RIGHT_OFFSET, BACK_LEFT_OFFSET, BACK_RIGHT_OFFSET};
+    private static final double PERIOD = 1 / RobotConfiguration.ODOMETRY_UPDATE_FREQUENCY;
+    private static final double SPEED = 2.0; // Meters / second
+    private static final double YAW_RATE = 45.0; // Degrees / second
+
+    private SwerveOdometry odometry;
+    private SwerveDrivePoseEstimator estimator;
+    private OdometryInputs inputs;
+
+    @Setup
+    public void setup() {
+        odometry = new SwerveOdometry(OFFSETS, null);
+        estimator = new SwerveDrivePoseEstimator(new SwerveDriveKinematics(OFFSETS), new Rotation2d(),
+                new SwerveModulePositions(OFFSETS.length).asModulePositions(), new Pose2d());
+
+        inputs = new OdometryInputs(OFFSETS.length);
+        for (int i = 0; i < OFFSETS.length; i++) {
+            inputs.positions.set(i, 0.0, Math.PI / 8 * i);
+            inputs.speeds[i] = SPEED;
+        }
+    }
+
+    private void advance(boolean yawValid) {
+        inputs.timestamp += PERIOD;
+        inputs.yawValid = yawValid;
+        inputs.yawDegrees += YAW_RATE * PERIOD;
+        for (int i = 0; i < OFFSETS.length; i++) {
+            inputs.positions.set(i, inputs.positions.getDistance(i) + SPEED * PERIOD, inputs.positions.getAngle(i));
+        }
+    }
+
+    @Benchmark
+    public Pose2d updateWithYaw() {
+        advance(true);
+        return odometry.update(inputs);
+    }
+
+    @Benchmark
+    public Pose2d updateWithFallbackHeading() {
+        advance(false);
+        return odometry.update(inputs);
+    }
+
+    @Benchmark
+    public Pose2d estimatorUpdate() {
+        advance(true);
+        return estimator.updateWithTime(inputs.timestamp, Rotation2d.fromDegrees(inputs.yawDegrees),
+                inputs.positions.asModulePositions());
+    }
+}
@@ -0,0 +1,44 @@
+package org.tahomarobotics.robot.chassis;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * The state math of {@link SwerveModule#updateDesiredState()}, without the control requests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveModuleBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    private final double[] targetSpeeds = new double[INPUT_COUNT];
+    private final double[] targetAngles = new double[INPUT_COUNT];
+    private final double[] currentAngles = new double[INPUT_COUNT];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(2046);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            targetSpeeds[i] = (random.nextDouble() * 2 - 1) * MAX_VELOCITY;
+            targetAngles[i] = random.nextDouble() * 2 - 1;
+            currentAngles[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double updateDesiredState() {
+        int i = index++ & (INPUT_COUNT - 1);
+        double speed = SwerveModule.optimizeSpeed(targetSpeeds[i], targetAngles[i], currentAngles[i]);
+        double angle = SwerveModule.optimizeAngle(targetAngles[i], currentAngles[i]);
+        return speed / DRIVE_POSITION_COEFFICIENT + angle;
+    }
+}
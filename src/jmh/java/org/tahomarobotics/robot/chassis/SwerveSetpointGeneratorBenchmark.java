@@ -0,0 +1,46 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveSetpointGeneratorBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    private SwerveSetpointGenerator generator;
+    private final ChassisSpeeds[] inputs = new ChassisSpeeds[INPUT_COUNT];
+    private int index;
+
+    @Setup
+    public void setup() {
+        generator = new SwerveSetpointGenerator(
+                new PrimitiveSwerveKinematics(FRONT_LEFT_OFFSET, FRONT_RIGHT_OFFSET, BACK_LEFT_OFFSET, BACK_RIGHT_OFFSET),
+                MAX_VELOCITY, ACCELERATION_LIMIT, MAX_STEER_VELOCITY, SWERVE_MOTOR, DRIVE_REDUCTION, WHEEL_RADIUS,
+                DRIVE_STATOR_CURRENT_LIMIT, ROBOT_MASS);
+
+        // Joystick like targets, so both the acceleration and steer limits engage
+        Random random = new Random(2046);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = new ChassisSpeeds(
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_ANGULAR_VELOCITY);
+        }
+    }
+
+    @Benchmark
+    public double generate() {
+        generator.generate(inputs[index++ & (INPUT_COUNT - 1)], 0.02);
+        return generator.getSpeed(0);
+    }
+}
@@ -0,0 +1,32 @@
+package org.tahomarobotics.robot.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputShapingBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    private final double[] inputs = new double[INPUT_COUNT];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(2046);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    @Benchmark
+    public double desensitizePowerBased() {
+        return InputShaping.desensitizePowerBased(inputs[index++ & (INPUT_COUNT - 1)], 1.3, 0.09);
+    }
+}
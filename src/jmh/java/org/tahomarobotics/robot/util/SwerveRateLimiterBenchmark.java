@@ -0,0 +1,47 @@
+package org.tahomarobotics.robot.util;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * Needs the HAL for the FPGA timestamp, so the native libraries must be on the library path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwerveRateLimiterBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    private SwerveRateLimiter limiter;
+    private final ChassisSpeeds[] inputs = new ChassisSpeeds[INPUT_COUNT];
+    private int index;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        limiter = new SwerveRateLimiter(ACCELERATION_LIMIT, ACCELERATION_LIMIT / Math.hypot(HALF_TRACK_WIDTH, HALF_WHEELBASE));
+
+        Random random = new Random(2046);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = new ChassisSpeeds(
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_ANGULAR_VELOCITY);
+        }
+    }
+
+    @Benchmark
+    public ChassisSpeeds calculate() {
+        return limiter.calculate(inputs[index++ & (INPUT_COUNT - 1)]);
+    }
+}
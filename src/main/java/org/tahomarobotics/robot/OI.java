@@ -13,6 +13,8 @@ import org.tahomarobotics.robot.mechanism.Mechanism;
 import org.tahomarobotics.robot.mechanism.commands.DefaultMechanismCommand;
 import org.tahomarobotics.robot.util.SubsystemIF;
 
+import static org.tahomarobotics.robot.util.InputShaping.desensitizePowerBased;
+
 public class OI extends SubsystemIF {
     private static final OI INSTANCE = new OI();
 
@@ -52,9 +54,9 @@ public class OI extends SubsystemIF {
 
     public void setDefaultCommands() {
         chassis.setDefaultCommand(new TeleopDriveCommand(
-                () -> -desensitizePowerBased(driveController.getLeftY(), TRANSLATIONAL_SENSITIVITY),
-                () -> -desensitizePowerBased(driveController.getLeftX(), TRANSLATIONAL_SENSITIVITY),
-                () -> -desensitizePowerBased(driveController.getRightX(), ROTATIONAL_SENSITIVITY)
+                () -> -desensitizePowerBased(driveController.getLeftY(), TRANSLATIONAL_SENSITIVITY, DEADBAND),
+                () -> -desensitizePowerBased(driveController.getLeftX(), TRANSLATIONAL_SENSITIVITY, DEADBAND),
+                () -> -desensitizePowerBased(driveController.getRightX(), ROTATIONAL_SENSITIVITY, DEADBAND)
         ));
         elevator.setDefaultCommand(new ElevatorDefaultCommand(() -> MathUtil.applyDeadband(manipController.getLeftY(), DEADBAND)));
         mechanism.setDefaultCommand(new DefaultMechanismCommand(
@@ -62,12 +64,4 @@ public class OI extends SubsystemIF {
                 () -> MathUtil.applyDeadband(manipController.getLeftTriggerAxis() - manipController.getRightTriggerAxis(), DEADBAND)
         ));
     }
-
-    // Helper Methods
-
-    public double desensitizePowerBased(double value, double power) {
-        value = MathUtil.applyDeadband(value, DEADBAND);
-        value *= Math.pow(Math.abs(value), power - 1);
-        return value;
-    }
 }
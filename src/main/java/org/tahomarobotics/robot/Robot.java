@@ -1,10 +1,20 @@
 package org.tahomarobotics.robot;
 
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import org.tahomarobotics.robot.chassis.Chassis;
 import org.tahomarobotics.robot.elevator.Elevator;
 import org.tahomarobotics.robot.mechanism.Mechanism;
+import org.tahomarobotics.robot.telemetry.DashboardPublisher;
+import org.tahomarobotics.robot.telemetry.FlightRecorder;
+import org.tahomarobotics.robot.telemetry.Telemetry;
+import org.tahomarobotics.robot.util.ConfigurationEngine;
+import org.tahomarobotics.robot.util.ControlDispatcher;
+import org.tahomarobotics.robot.util.CurrentBudget;
+import org.tahomarobotics.robot.util.LoopProfiler;
+import org.tahomarobotics.robot.util.SignalRegistry;
+import org.tahomarobotics.robot.util.StatusSignalHub;
 import org.tahomarobotics.robot.util.SubsystemIF;
 
 import java.util.ArrayList;
@@ -12,26 +22,112 @@ import java.util.List;
 
 public class Robot extends TimedRobot {
     private final List<SubsystemIF> subsystems = new ArrayList<>();
+    private final StatusSignalHub signalHub = StatusSignalHub.getInstance();
+    private final ControlDispatcher rioDispatcher = ControlDispatcher.forBus(RobotConfiguration.RIO_BUS_NAME);
+
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+    private final int signalSection = profiler.register("Signal refresh");
+    private final int budgetSection = profiler.register("Current budget");
+    private final int dispatchSection = profiler.register("RIO dispatch");
+    private final int dashboardSection = profiler.register("Dashboard");
+    private final int recorderSection = profiler.register("Flight recorder");
+
+    private final DashboardPublisher dashboard = DashboardPublisher.getInstance();
+
+    private final FlightRecorder recorder = FlightRecorder.getInstance();
+    private boolean wasEnabled = false;
 
     // Robot
 
     public Robot() {
+        profiler.install(CommandScheduler.getInstance());
+
         subsystems.add(OI.getInstance().initialize());
         subsystems.add(Chassis.getInstance().initialize());
         subsystems.add(Elevator.getInstance().initialize());
         subsystems.add(Mechanism.getInstance().initialize());
+
+        // Subsystems queue their device configurations, which are applied concurrently
+        ConfigurationEngine.getInstance().awaitCompletion();
+
+        recorder.addChannel("Cycle Time", profiler::getLastCycleTime);
+        recorder.addChannel("Battery Voltage", RobotController::getBatteryVoltage);
+        recorder.addChannel("CAN Status", () -> signalHub.getStatus(RobotConfiguration.CANBUS_NAME).value);
+        recorder.addChannel("RIO CAN Status", () -> signalHub.getStatus(RobotConfiguration.RIO_BUS_NAME).value);
+        recorder.addTrigger("Brownout", RobotController::isBrownedOut);
+
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> {
+            recorder.trigger("Exception in " + thread.getName());
+            if (handler != null) {
+                handler.uncaughtException(thread, exception);
+            } else {
+                exception.printStackTrace();
+            }
+        });
+
+        SignalRegistry.getInstance().apply(SignalRegistry.Mode.DISABLED);
+    }
+
+    @Override
+    public void startCompetition() {
+        try {
+            super.startCompetition();
+        } catch (Throwable t) {
+            // The main loop is about to die, so write what led up to it now
+            recorder.dumpNow("Exception in main loop");
+            throw t;
+        }
     }
 
     @Override
     public void robotPeriodic() {
+        profiler.beginCycle();
+
+        // Sample every main loop signal once, before anything reads them
+        long start = System.nanoTime();
+        signalHub.refresh();
+        profiler.record(signalSection, start);
+
+        profiler.beginScheduler();
         CommandScheduler.getInstance().run();
+        profiler.endScheduler();
+
+        // Subsystems updated their currents, so share the battery for the next cycle
+        if (RobotConfiguration.CURRENT_BUDGET) {
+            start = System.nanoTime();
+            CurrentBudget.getInstance().update(signalHub.getTimestamp());
+            profiler.record(budgetSection, start);
+        }
+
+        // Send this cycle's changed requests for the RIO bus together
+        start = System.nanoTime();
+        rioDispatcher.flush();
+        profiler.record(dispatchSection, start);
+
+        // Send the dashboard values that changed this cycle
+        start = System.nanoTime();
+        dashboard.flush(signalHub.getTimestamp());
+        profiler.record(dashboardSection, start);
+
+        start = System.nanoTime();
+        recorder.capture(signalHub.getTimestamp());
+        profiler.record(recorderSection, start);
+
+        profiler.endCycle();
     }
 
     // Disabled
 
     @Override
     public void disabledInit() {
+        if (wasEnabled) {
+            recorder.trigger("Disabled");
+            wasEnabled = false;
+        }
+        SignalRegistry.getInstance().apply(SignalRegistry.Mode.DISABLED);
         subsystems.forEach(SubsystemIF::onDisabledInit);
+        Telemetry.getInstance().sync();
     }
 
     @Override
@@ -42,6 +138,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void autonomousInit() {
+        wasEnabled = true;
+        SignalRegistry.getInstance().apply(SignalRegistry.Mode.AUTONOMOUS);
         subsystems.forEach(SubsystemIF::onAutonomousInit);
     }
 
@@ -53,6 +151,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        wasEnabled = true;
+        SignalRegistry.getInstance().apply(SignalRegistry.Mode.TELEOP);
         subsystems.forEach(SubsystemIF::onTeleopInit);
     }
 
@@ -64,6 +164,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testInit() {
+        wasEnabled = true;
+        SignalRegistry.getInstance().apply(SignalRegistry.Mode.TEST);
         CommandScheduler.getInstance().cancelAll();
     }
 
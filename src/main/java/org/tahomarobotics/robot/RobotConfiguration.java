@@ -1,10 +1,46 @@
 package org.tahomarobotics.robot;
 
+import org.tahomarobotics.robot.util.SignalRegistry;
+
  public class RobotConfiguration {
 
         public static final String CANBUS_NAME = "CANivore";
+        public static final String RIO_BUS_NAME = "rio";
         public static final boolean CANIVORE_PHOENIX_PRO = false;
         public static final boolean RIO_PHOENIX_PRO = false;
         public static final double ODOMETRY_UPDATE_FREQUENCY = 250;
+        public static final double ODOMETRY_DISABLED_FREQUENCY = 50;
         public static final double MECHANISM_UPDATE_FREQUENCY = 100;
+        public static final double MECHANISM_DISABLED_FREQUENCY = 20;
+        public static final double TELEMETRY_UPDATE_FREQUENCY = 50;
+        public static final double TELEMETRY_DISABLED_FREQUENCY = 4;
+        public static final double SYSID_UPDATE_FREQUENCY = 250;
+
+        public static final SignalRegistry.Rates ODOMETRY_RATES =
+                SignalRegistry.Rates.enabled(ODOMETRY_UPDATE_FREQUENCY, ODOMETRY_DISABLED_FREQUENCY);
+        public static final SignalRegistry.Rates MECHANISM_RATES =
+                SignalRegistry.Rates.enabled(MECHANISM_UPDATE_FREQUENCY, MECHANISM_DISABLED_FREQUENCY);
+        public static final SignalRegistry.Rates TELEMETRY_RATES =
+                SignalRegistry.Rates.enabled(TELEMETRY_UPDATE_FREQUENCY, TELEMETRY_DISABLED_FREQUENCY);
+        public static final SignalRegistry.Rates SYSID_RATES =
+                new SignalRegistry.Rates(0, 0, 0, SYSID_UPDATE_FREQUENCY);
+
+        // Run swerve module control on the odometry thread right after each position update
+        public static final boolean HIGH_RATE_SWERVE_CONTROL = false;
+
+        // Record every odometry input for replay, about 38 KB / second
+        public static final boolean ODOMETRY_LOGGING = false;
+
+        // Persist telemetry entries to disk, read back with TelemetryExport
+        public static final boolean TELEMETRY_LOGGING = false;
+
+        // Leave devices alone at boot when they still hold the configuration they were last given
+        public static final boolean SKIP_UNCHANGED_CONFIGURATION = true;
+
+        // Lower supply current limits as the battery sags, sharing what it can deliver between the subsystems
+        public static final boolean CURRENT_BUDGET = false;
+
+        // Limit drivetrain acceleration by how far the elevator raises the centre of gravity, instead of always
+        // assuming it is all the way up
+        public static final boolean TIP_AWARE_ACCELERATION = true;
  }
@@ -0,0 +1,75 @@
+package org.tahomarobotics.robot.chassis;
+
+import org.tahomarobotics.robot.util.ConfigurationEngine;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one calibration step running in the background, safe to poll from the main loop.
+ */
+public class CalibrationProgress {
+    private final int steps;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile String status;
+    private volatile boolean done = false;
+
+    CalibrationProgress(String status, int steps) {
+        this.status = status;
+        this.steps = steps;
+    }
+
+    /**
+     * Counts each device update as a step once it finishes.
+     *
+     * @return completes once every update has finished
+     */
+    CompletableFuture<Void> track(List<ConfigurationEngine.Job> jobs) {
+        return CompletableFuture.allOf(jobs.stream()
+                .map(job -> job.getResult().whenComplete((status, e) -> {
+                    if (status == null || !status.isOK()) {
+                        failed.incrementAndGet();
+                    }
+                    completed.incrementAndGet();
+                }))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    void setStatus(String status) {
+        this.status = status;
+    }
+
+    void step() {
+        completed.incrementAndGet();
+    }
+
+    void fail() {
+        failed.incrementAndGet();
+    }
+
+    void finish(String status) {
+        this.status = status;
+        done = true;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Fraction of the steps done, from 0 to 1.
+     */
+    public double getFraction() {
+        return steps == 0 ? 1 : Math.min((double) completed.get() / steps, 1);
+    }
+
+    public int getFailures() {
+        return failed.get();
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
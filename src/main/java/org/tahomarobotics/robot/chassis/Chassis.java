@@ -4,33 +4,66 @@ import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.hardware.Pigeon2;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import com.ctre.phoenix6.sim.Pigeon2SimState;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
-import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
-import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.Robot;
 import org.tahomarobotics.robot.RobotConfiguration;
 import org.tahomarobotics.robot.RobotMap;
 import org.tahomarobotics.robot.chassis.commands.AlignSwerveCommand;
-import org.tahomarobotics.robot.util.CalibrationData;
+import org.tahomarobotics.robot.elevator.Elevator;
+import org.tahomarobotics.robot.telemetry.BooleanEntry;
+import org.tahomarobotics.robot.telemetry.DashboardDouble;
+import org.tahomarobotics.robot.telemetry.DashboardDoubleArray;
+import org.tahomarobotics.robot.telemetry.DashboardPose;
+import org.tahomarobotics.robot.telemetry.DashboardPublisher;
+import org.tahomarobotics.robot.telemetry.DashboardString;
+import org.tahomarobotics.robot.telemetry.DoubleArrayEntry;
+import org.tahomarobotics.robot.telemetry.FlightRecorder;
+import org.tahomarobotics.robot.telemetry.PoseEntry;
+import org.tahomarobotics.robot.telemetry.Telemetry;
+import org.tahomarobotics.robot.util.CalibrationStore;
+import org.tahomarobotics.robot.util.ConfigurationEngine;
+import org.tahomarobotics.robot.util.ControlDispatcher;
+import org.tahomarobotics.robot.util.CurrentBudget;
+import org.tahomarobotics.robot.util.EnergyMeter;
+import org.tahomarobotics.robot.util.LogRetention;
+import org.tahomarobotics.robot.util.SeqLock;
+import org.tahomarobotics.robot.util.SignalRegistry;
+import org.tahomarobotics.robot.util.StatusSignalHub;
 import org.tahomarobotics.robot.util.SubsystemIF;
-
+import org.tahomarobotics.robot.vision.FileVisionSource;
+import org.tahomarobotics.robot.vision.UdpVisionSource;
+import org.tahomarobotics.robot.vision.VisionConstants;
+import org.tahomarobotics.robot.vision.VisionFusion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 public class Chassis extends SubsystemIF {
     private static final Logger logger = LoggerFactory.getLogger(Chassis.class);
@@ -38,57 +71,185 @@ public class Chassis extends SubsystemIF {
     private static final Chassis INSTANCE = new Chassis();
 
     private final List<SwerveModule> modules;
+    private final ControlDispatcher dispatcher = ControlDispatcher.forBus(RobotConfiguration.CANBUS_NAME);
 
     private final Pigeon2 pigeon = new Pigeon2(RobotMap.PIGEON, RobotConfiguration.CANBUS_NAME);
     private final StatusSignal<Angle> yaw = pigeon.getYaw();
     private final StatusSignal<AngularVelocity> yawVelocity = pigeon.getAngularVelocityZWorld();
     public record ValidYaw(Rotation2d yaw, boolean valid) {}
 
-    private ChassisSpeeds targetSpeeds = new ChassisSpeeds();
+    private final ChassisSpeeds targetSpeeds = new ChassisSpeeds();
 
-    private final CalibrationData<Double[]> swerveCalibration;
-    private final SwerveDriveKinematics kinematics;
-    private final SwerveDrivePoseEstimator poseEstimator;
+    private final CalibrationStore calibrationStore = CalibrationStore.getInstance();
     private final Field2d fieldPose = new Field2d();
+    private final EnergyMeter energyMeter = new EnergyMeter();
     private final Thread odometryThread;
+    private final BaseStatusSignal[] odometrySignals;
+    private final OdometryHealth odometryHealth;
+    private final double[] healthSummary = new double[OdometryHealth.SUMMARY_SIZE];
+    private final double[] healthHistogram = new double[OdometryHealth.HISTOGRAM_BINS];
+    private final double[] healthStaleness;
     private boolean isFieldCentric = true;
-    private Rotation2d heading = new Rotation2d();
-    private SwerveModulePosition[] lastModulePosition;
 
-    private final SwerveDriveLimiter accelerationLimiter;
+    private final DashboardPose poseDashboard;
+    private final DashboardDouble visionAcceptedDashboard;
+    private final DashboardDouble visionRejectedDashboard;
+    private final DashboardDoubleArray healthDashboard;
+    private final DashboardDoubleArray histogramDashboard;
+    private final DashboardDoubleArray stalenessDashboard;
+    private final DashboardString calibrationStatusDashboard;
+    private final DashboardDouble calibrationProgressDashboard;
+
+    private CalibrationProgress calibrationProgress = null;
+
+    // Odometry thread state, preallocated so an update does not allocate
+    private final PrimitiveSwerveKinematics primitiveKinematics;
+    private final OdometryIO odometryIO;
+    private final OdometryInputs odometryInputs;
+    private final SwerveOdometry odometry;
+    private final OdometryLog odometryLog;
+
+    private final PoseHistory poseHistory;
+
+    private final PoseEntry poseTelemetry = Telemetry.getInstance().poseEntry("Chassis/Pose");
+    private final DoubleArrayEntry velocityTelemetry = Telemetry.getInstance().doubleArrayEntry("Chassis/Velocity");
+    private final BooleanEntry yawValidTelemetry = Telemetry.getInstance().booleanEntry("Chassis/Yaw Valid");
+    private final double[] velocityValues = new double[3];
+    private final VisionFusion visionFusion;
+
+    private final SwerveSetpointGenerator setpointGenerator;
+    private final TipAwareRateLimiter accelerationLimiter = new TipAwareRateLimiter();
+
+    // Target handoff from the main loop to the odometry thread in high rate control mode
+    private final SeqLock targetLock = new SeqLock();
+    private double handoffVx, handoffVy, handoffOmega;
+    private boolean handoffEnabled;
+    private final ChassisSpeeds highRateTarget = new ChassisSpeeds();
+    private double lastControlTimestamp = Double.NaN;
+
+    // Odometry snapshot, written by the odometry thread and read lock-free by everyone else
+    private final SeqLock snapshotLock = new SeqLock();
+    private double snapshotTimestamp;
+    private double snapshotX, snapshotY, snapshotHeading;
+    private double snapshotVx, snapshotVy, snapshotOmega;
+    private double snapshotYawDegrees;
+    private boolean snapshotYawValid;
+    private final double[] snapshotSpeeds; // Meters / second per module
+    private final double[] snapshotAngles; // Radians per module
+    private final double[] seedSpeeds, seedAngles; // Snapshot copies for seeding the setpoint generator
+
+    // Simulation, only touched by the simulation notifier
+    private final Notifier simulationNotifier;
+    private final double[] simulatedSpeeds;
+    private final double[] simulatedAngles;
+    private final double[] simulatedMotion = new double[3];
+    private double simulatedYaw = 0.0;
 
     private Chassis() {
         // Read calibration from rio
-        swerveCalibration = new CalibrationData<>("SwerveCalibration", new Double[]{0d, 0d, 0d, 0d});
+        calibrationStore.migrate(ChassisConstants.SWERVE_CALIBRATION, ChassisConstants.LEGACY_SWERVE_CALIBRATION_FILE);
 
         // Use calibration to make modules
-        Double[] angularOffsets = swerveCalibration.get();
+        double[] angularOffsets = calibrationStore.get(ChassisConstants.SWERVE_CALIBRATION, new double[]{0, 0, 0, 0});
+        SignalRegistry.getInstance().register(RobotConfiguration.CANBUS_NAME, RobotConfiguration.ODOMETRY_RATES, yaw, yawVelocity);
+        SignalRegistry.getInstance().registerDevices(pigeon);
+
         modules = List.of(
-                new SwerveModule(RobotMap.FRONT_LEFT_MOD, angularOffsets[0]),
-                new SwerveModule(RobotMap.FRONT_RIGHT_MOD, angularOffsets[1]),
-                new SwerveModule(RobotMap.BACK_LEFT_MOD, angularOffsets[2]),
-                new SwerveModule(RobotMap.BACK_RIGHT_MOD, angularOffsets[3])
+                new SwerveModule(RobotMap.FRONT_LEFT_MOD, angularOffsets[0], dispatcher),
+                new SwerveModule(RobotMap.FRONT_RIGHT_MOD, angularOffsets[1], dispatcher),
+                new SwerveModule(RobotMap.BACK_LEFT_MOD, angularOffsets[2], dispatcher),
+                new SwerveModule(RobotMap.BACK_RIGHT_MOD, angularOffsets[3], dispatcher)
         );
 
-        kinematics = new SwerveDriveKinematics(
-                modules.stream()
-                        .map(SwerveModule::getTranslationOffset)
-                        .toArray(Translation2d[]::new)
+        Translation2d[] offsets = modules.stream()
+                .map(SwerveModule::getTranslationOffset)
+                .toArray(Translation2d[]::new);
+
+        primitiveKinematics = new PrimitiveSwerveKinematics(offsets);
+        poseHistory = new PoseHistory(ChassisConstants.POSE_HISTORY_CAPACITY, modules.size());
+        visionFusion = new VisionFusion(poseHistory);
+
+        odometryIO = new PhoenixOdometryIO(modules, yaw, yawVelocity);
+        odometryInputs = new OdometryInputs(modules.size());
+        snapshotSpeeds = new double[modules.size()];
+        snapshotAngles = new double[modules.size()];
+        seedSpeeds = new double[modules.size()];
+        seedAngles = new double[modules.size()];
+        odometryLog = createOdometryLog(modules.size());
+        odometry = new SwerveOdometry(offsets, odometryLog);
+        odometryIO.updateInputs(odometryInputs);
+        odometryInputs.timestamp = Timer.getFPGATimestamp();
+        odometry.reset(odometryInputs, new Pose2d());
+
+        setpointGenerator = new SwerveSetpointGenerator(
+                primitiveKinematics,
+                ChassisConstants.MAX_VELOCITY,
+                RobotConfiguration.TIP_AWARE_ACCELERATION ? ChassisConstants.TRACTION_ACCELERATION_LIMIT : ChassisConstants.ACCELERATION_LIMIT,
+                ChassisConstants.MAX_STEER_VELOCITY,
+                ChassisConstants.SWERVE_MOTOR,
+                ChassisConstants.DRIVE_REDUCTION,
+                ChassisConstants.WHEEL_RADIUS,
+                ChassisConstants.DRIVE_STATOR_CURRENT_LIMIT,
+                ChassisConstants.ROBOT_MASS
         );
 
-        lastModulePosition = getSwerveModulePositions();
-
-        poseEstimator = new SwerveDrivePoseEstimator(
-                kinematics,
-                new Rotation2d(),
-                getSwerveModulePositions(),
-                new Pose2d(0.0, 0.0, new Rotation2d(0.0))
-        );
+        // Get signals array
+        List<BaseStatusSignal> signalList = new ArrayList<>(getStatusSignals());
+        List<String> signalNames = new ArrayList<>();
+        for (var signal : signalList) {
+            signalNames.add("Pigeon " + signal.getName());
+        }
+        for (var module : this.modules) {
+            for (var signal : module.getOdometrySignals()) {
+                signalList.add(signal);
+                signalNames.add(module.getName() + " " + signal.getName());
+            }
+        }
+        odometrySignals = signalList.toArray(BaseStatusSignal[]::new);
+        odometryHealth = new OdometryHealth(odometrySignals, signalNames.toArray(String[]::new));
+        healthStaleness = new double[odometrySignals.length];
+
+        DashboardPublisher dashboard = DashboardPublisher.getInstance();
+        poseDashboard = dashboard.poseTopic("Robot Pose", fieldPose,
+                ChassisConstants.DASHBOARD_POSE_THRESHOLD, ChassisConstants.DASHBOARD_POSE_RATE);
+        visionAcceptedDashboard = dashboard.doubleTopic("Vision Accepted", 0);
+        visionRejectedDashboard = dashboard.doubleTopic("Vision Rejected", 0);
+        healthDashboard = dashboard.doubleArrayTopic("Odometry Health", healthSummary.length, 0);
+        histogramDashboard = dashboard.doubleArrayTopic("Odometry Period Histogram", healthHistogram.length, 0);
+        stalenessDashboard = dashboard.doubleArrayTopic("Odometry Staleness", healthStaleness.length,
+                ChassisConstants.DASHBOARD_STALENESS_THRESHOLD);
+        calibrationStatusDashboard = dashboard.stringTopic("Calibration Status");
+        calibrationProgressDashboard = dashboard.doubleTopic("Calibration Progress", 0.01);
+
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        for (int i = 0; i < modules.size(); i++) {
+            int index = i;
+            recorder.addChannel(modules.get(i).getName() + " Speed", () -> getModuleSpeed(index));
+            recorder.addChannel(modules.get(i).getName() + " Angle", () -> Units.radiansToRotations(getModuleAngle(index)));
+        }
+        recorder.addChannel("Yaw Valid", () -> isYawValid() ? 1 : 0);
+        recorder.addChannel("Odometry Timeouts", odometryHealth::getTimeoutsPerSecond);
+        recorder.addChannel("CoG Height", accelerationLimiter::getCenterOfGravityHeight);
+        recorder.addTrigger("Odometry timeouts", () ->
+                odometryHealth.getTimeoutsPerSecond() >= ChassisConstants.ODOMETRY_TIMEOUT_TRIGGER);
 
-        accelerationLimiter = new SwerveDriveLimiter(getSwerveModuleStates(), ChassisConstants.ACCELERATION_LIMIT);
+        CurrentBudget.getInstance().register("Drive", modules.size(),
+                ChassisConstants.DRIVE_MIN_SUPPLY_CURRENT_LIMIT, ChassisConstants.DRIVE_SUPPLY_CURRENT_LIMIT,
+                ChassisConstants.DRIVE_CURRENT_WEIGHT, this::getTotalCurrent,
+                limit -> modules.stream().map(module -> module.setDriveSupplyLimit(limit)).toList());
 
         odometryThread = new Thread(this::odometryThread);
         odometryThread.start();
+
+        simulatedSpeeds = new double[modules.size()];
+        simulatedAngles = new double[modules.size()];
+        if (RobotBase.isSimulation()) {
+            simulationNotifier = new Notifier(this::simulationUpdate);
+            simulationNotifier.setName("Chassis Simulation");
+            simulationNotifier.startPeriodic(ChassisConstants.SIMULATION_PERIOD);
+        } else {
+            simulationNotifier = null;
+        }
     }
 
     public static Chassis getInstance() {
@@ -98,15 +259,20 @@ public class Chassis extends SubsystemIF {
     @Override
     public SubsystemIF initialize() {
         SmartDashboard.putData("AlignSwerve", new AlignSwerveCommand());
+        SmartDashboard.putStringArray("Odometry Staleness Signals", odometryHealth.getSignalNames());
+        SmartDashboard.putData(fieldPose);
         zeroHeading();
 
-        var gyro = getYaw().yaw;
-        var modules = getSwerveModulePositions();
-        synchronized (poseEstimator) {
-            //changed SwerveDriveWheelPositions to passing in an array of the module positions
-            //because SwerveDriveWheelPositions was just deleted in 2025.1.1 beta
-            //if that broke something blame me :(
-            poseEstimator.resetPosition(gyro, modules, new Pose2d());
+        // The odometry thread owns its inputs, so sample a separate set for the reset
+        OdometryInputs inputs = new OdometryInputs(modules.size());
+        odometryIO.updateInputs(inputs);
+        inputs.timestamp = Timer.getFPGATimestamp();
+        odometry.reset(inputs, new Pose2d());
+
+        visionFusion.addSource(new UdpVisionSource("Coprocessor", VisionConstants.UDP_PORT));
+        File visionReplay = new File(Filesystem.getDeployDirectory(), VisionConstants.REPLAY_FILE);
+        if (RobotBase.isSimulation() && visionReplay.exists()) {
+            visionFusion.addSource(new FileVisionSource("Replay", visionReplay));
         }
 
         return this;
@@ -115,64 +281,224 @@ public class Chassis extends SubsystemIF {
     private void odometryThread() {
         Threads.setCurrentThreadPriority(true, 1);
 
-        // Get signals array
-        List<BaseStatusSignal> signalList = new ArrayList<>(getStatusSignals());
-        for (var module : this.modules) {
-            signalList.addAll(module.getStatusSignals());
-        }
-
-        BaseStatusSignal[] signals = signalList.toArray(BaseStatusSignal[]::new);
-
         while (true) {
             // Wait for all signals to arrive
-            BaseStatusSignal.waitForAll(4 / RobotConfiguration.ODOMETRY_UPDATE_FREQUENCY, signals);
-            updatePosition();
+            double frequency = RobotConfiguration.ODOMETRY_RATES.get(SignalRegistry.getInstance().getMode());
+            StatusCode status = BaseStatusSignal.waitForAll(4 / frequency, odometrySignals);
+            double timestamp = Timer.getFPGATimestamp();
+
+            odometryHealth.record(status, timestamp);
+            updatePosition(timestamp);
+
+            if (RobotConfiguration.HIGH_RATE_SWERVE_CONTROL) {
+                updateHighRateControl(timestamp);
+            }
         }
     }
 
-    private SwerveModulePosition[] calculateModuleDeltas(SwerveModulePosition[] last, SwerveModulePosition[] current) {
-        SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[current.length];
-        for (int i = 0; i < current.length; i++) {
-            moduleDeltas[i] = new SwerveModulePosition(current[i].distanceMeters - last[i].distanceMeters, current[i].angle);
+    private static OdometryLog createOdometryLog(int moduleCount) {
+        if (!RobotConfiguration.ODOMETRY_LOGGING) {
+            return null;
         }
 
-        return moduleDeltas;
+        String name = "odometry-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".bin";
+        Path path = Path.of(Filesystem.getOperatingDirectory().getPath(), ChassisConstants.ODOMETRY_LOG_DIRECTORY, name);
+        LogRetention.prune(path.getParent(), "odometry-",
+                ChassisConstants.ODOMETRY_LOG_TOTAL_SIZE - ChassisConstants.ODOMETRY_LOG_MAX_SIZE);
+        try {
+            return OdometryLog.create(path, moduleCount, ChassisConstants.ODOMETRY_LOG_MAX_SIZE);
+        } catch (IOException e) {
+            logger.error("Failed to create odometry log " + path, e);
+            return null;
+        }
     }
 
     // CALIBRATION
-    public void initializeCalibration() {
-        modules.forEach(SwerveModule::initCalibration);
+
+    /*
+     * Device updates go out in parallel on the ConfigurationEngine and the offsets are saved on the calibration
+     * store's thread, so none of these block the main loop. Poll the returned progress instead.
+     */
+
+    public CalibrationProgress initializeCalibration() {
+        return updateModules("Zeroing offsets", "Aligning", SwerveModule::initCalibration);
     }
 
-    public void finalizeCalibration() {
-        swerveCalibration.set(
-                modules.stream()
-                        .map(SwerveModule::finalizeCalibration)
-                        .toArray(Double[]::new)
-        );
+    public CalibrationProgress finalizeCalibration() {
+        // The steer angles come from the odometry snapshot, as the odometry thread owns the signals
+        double[] offsets = new double[modules.size()];
+        for (int i = 0; i < modules.size(); i++) {
+            offsets[i] = modules.get(i).captureCalibration(Units.radiansToRotations(getModuleAngle(i)));
+        }
+
+        List<ConfigurationEngine.Job> jobs = new ArrayList<>();
+        modules.forEach(module -> jobs.addAll(module.finalizeCalibration()));
+
+        // The offsets are measured, so save them even if a device update failed; the next boot applies them
+        CalibrationProgress progress = new CalibrationProgress("Applying offsets", jobs.size() + 1);
+        progress.track(jobs)
+                .thenCompose(ignored -> {
+                    progress.setStatus("Saving");
+                    return calibrationStore.setAsync(ChassisConstants.SWERVE_CALIBRATION, offsets);
+                })
+                .whenComplete((saved, e) -> {
+                    if (saved == null || !saved) {
+                        progress.fail();
+                        progress.finish("Failed to save calibration");
+                    } else {
+                        progress.step();
+                        progress.finish(progress.getFailures() == 0 ? "Calibrated" : "Saved, but " + progress.getFailures() + " device updates failed");
+                    }
+                });
+
+        calibrationProgress = progress;
+        return progress;
+    }
+
+    public CalibrationProgress cancelCalibration() {
+        return updateModules("Restoring offsets", "Cancelled", SwerveModule::cancelCalibration);
     }
 
-    public void cancelCalibration() {
-        modules.forEach(SwerveModule::cancelCalibration);
+    private CalibrationProgress updateModules(String status, String finished, Function<SwerveModule, List<ConfigurationEngine.Job>> update) {
+        List<ConfigurationEngine.Job> jobs = new ArrayList<>();
+        modules.forEach(module -> jobs.addAll(update.apply(module)));
+
+        CalibrationProgress progress = new CalibrationProgress(status, jobs.size());
+        progress.track(jobs).whenComplete((ignored, e) -> progress.finish(progress.getFailures() == 0 ?
+                finished : finished + ", but " + progress.getFailures() + " device updates failed"));
+
+        calibrationProgress = progress;
+        return progress;
     }
 
     // GETTERS
 
     public Pose2d getPose() {
-        return poseEstimator.getEstimatedPosition();
+        double x, y, heading;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            x = snapshotX;
+            y = snapshotY;
+            heading = snapshotHeading;
+        } while (!snapshotLock.validate(stamp));
+
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+
+    /**
+     * Drive speed of a module in meters / second at the last odometry update.
+     */
+    public double getModuleSpeed(int module) {
+        double speed;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            speed = snapshotSpeeds[module];
+        } while (!snapshotLock.validate(stamp));
+        return speed;
+    }
+
+    /**
+     * Steer angle of a module in radians at the last odometry update.
+     */
+    public double getModuleAngle(int module) {
+        double angle;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            angle = snapshotAngles[module];
+        } while (!snapshotLock.validate(stamp));
+        return angle;
+    }
+
+    /**
+     * Returns the robot relative velocity measured by the modules at the last odometry update.
+     */
+    public ChassisSpeeds getVelocity() {
+        double vx, vy, omega;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            vx = snapshotVx;
+            vy = snapshotVy;
+            omega = snapshotOmega;
+        } while (!snapshotLock.validate(stamp));
+
+        return new ChassisSpeeds(vx, vy, omega);
+    }
+
+    /**
+     * Returns the FPGA timestamp of the last odometry update in seconds.
+     */
+    public double getPoseTimestamp() {
+        double timestamp;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            timestamp = snapshotTimestamp;
+        } while (!snapshotLock.validate(stamp));
+
+        return timestamp;
+    }
+
+    /**
+     * Returns the interpolated pose at an FPGA timestamp within the recent history, e.g. when a sensor frame was captured.
+     */
+    public Optional<Pose2d> getPoseAt(double timestamp) {
+        return poseHistory.getPose(timestamp);
+    }
+
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
+    }
+
+    public VisionFusion getVisionFusion() {
+        return visionFusion;
+    }
+
+    public OdometryHealth getOdometryHealth() {
+        return odometryHealth;
+    }
+
+    private double getHeadingRadians() {
+        double heading;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            heading = snapshotHeading;
+        } while (!snapshotLock.validate(stamp));
+
+        return heading;
     }
 
     public SwerveModulePosition[] getSwerveModulePositions() {
         return modules.stream().map(SwerveModule::getPosition).toArray(SwerveModulePosition[]::new);
     }
 
-    private SwerveModuleState[] getSwerveModuleStates() {
-        return modules.stream().map(SwerveModule::getState).toArray(SwerveModuleState[]::new);
+    /**
+     * Latest yaw sampled by the odometry thread, which owns refreshing the pigeon signals.
+     */
+    public ValidYaw getYaw() {
+        double degrees;
+        boolean valid;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            degrees = snapshotYawDegrees;
+            valid = snapshotYawValid;
+        } while (!snapshotLock.validate(stamp));
+        return new ValidYaw(Rotation2d.fromDegrees(degrees), valid);
     }
 
-    public ValidYaw getYaw() {
-        boolean valid = BaseStatusSignal.refreshAll(yaw, yawVelocity).equals(StatusCode.OK);
-        return new ValidYaw(Rotation2d.fromDegrees(BaseStatusSignal.getLatencyCompensatedValueAsDouble(yaw, yawVelocity)), valid);
+    public boolean isYawValid() {
+        boolean valid;
+        long stamp;
+        do {
+            stamp = snapshotLock.beginRead();
+            valid = snapshotYawValid;
+        } while (!snapshotLock.validate(stamp));
+        return valid;
     }
 
     private List<BaseStatusSignal> getStatusSignals() {
@@ -182,81 +508,211 @@ public class Chassis extends SubsystemIF {
     // DRIVING
 
     public void drive(ChassisSpeeds velocity, boolean isFieldCentric) {
-        if (isFieldCentric) {
-            velocity = ChassisSpeeds.fromFieldRelativeSpeeds(velocity, getPose().getRotation());
-        }
-        targetSpeeds = velocity;
+        drive(velocity.vxMetersPerSecond, velocity.vyMetersPerSecond, velocity.omegaRadiansPerSecond, isFieldCentric);
     }
 
     public void drive(ChassisSpeeds velocity) {
+        double direction = 1.0;
         if (!isFieldCentric && DriverStation.getAlliance().orElse(null) == DriverStation.Alliance.Red) {
-            velocity = new ChassisSpeeds(-velocity.vxMetersPerSecond, -velocity.vyMetersPerSecond, velocity.omegaRadiansPerSecond);
+            direction = -1.0;
         }
 
-        drive(velocity, isFieldCentric);
+        drive(direction * velocity.vxMetersPerSecond, direction * velocity.vyMetersPerSecond, velocity.omegaRadiansPerSecond, isFieldCentric);
     }
 
-    private void setSwerveStates(SwerveModuleState[] states) {
-        for (int i = 0; i < states.length; i++) {
-            modules.get(i).setDesiredState(states[i]);
+    private void drive(double vx, double vy, double omega, boolean isFieldCentric) {
+        // Rotate field relative speeds into the robot frame in place, as ChassisSpeeds.fromFieldRelativeSpeeds does
+        if (isFieldCentric) {
+            double heading = getHeadingRadians();
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotVx = vx * cos + vy * sin;
+            vy = -vx * sin + vy * cos;
+            vx = robotVx;
         }
+
+        targetSpeeds.vxMetersPerSecond = vx;
+        targetSpeeds.vyMetersPerSecond = vy;
+        targetSpeeds.omegaRadiansPerSecond = omega;
     }
 
     public void zeroHeading() {
         pigeon.setYaw(0);
     }
 
-    private void updatePosition() {
-        SwerveModulePosition[] positions;
+    private void updatePosition(double timestamp) {
+        odometryInputs.timestamp = timestamp;
+        odometryIO.updateInputs(odometryInputs);
 
-        synchronized (modules) {
-            positions = getSwerveModulePositions();
+        Pose2d pose = odometry.update(odometryInputs);
+
+        poseHistory.add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians(), odometryInputs.positions);
+        publishSnapshot(timestamp, pose, odometry.getVx(), odometry.getVy(), odometry.getOmega());
+
+        poseTelemetry.append(pose.getX(), pose.getY(), pose.getRotation().getRadians(), timestamp);
+        velocityValues[0] = odometry.getVx();
+        velocityValues[1] = odometry.getVy();
+        velocityValues[2] = odometry.getOmega();
+        velocityTelemetry.append(velocityValues, velocityValues.length, timestamp);
+        yawValidTelemetry.append(odometryInputs.yawValid, timestamp);
+    }
+
+    private void publishSnapshot(double timestamp, Pose2d pose, double vx, double vy, double omega) {
+        snapshotLock.beginWrite();
+        snapshotTimestamp = timestamp;
+        snapshotX = pose.getX();
+        snapshotY = pose.getY();
+        snapshotHeading = pose.getRotation().getRadians();
+        snapshotVx = vx;
+        snapshotVy = vy;
+        snapshotOmega = omega;
+        snapshotYawDegrees = odometryInputs.yawDegrees;
+        snapshotYawValid = odometryInputs.yawValid;
+        for (int i = 0; i < snapshotSpeeds.length; i++) {
+            snapshotSpeeds[i] = odometryInputs.speeds[i];
+            snapshotAngles[i] = odometryInputs.positions.getAngle(i);
         }
+        snapshotLock.endWrite();
+    }
 
-        synchronized (pigeon) {
-            var validYaw = getYaw();
-
-            // If pigeon yaw is valid, accept it as the real value
-            if (validYaw.valid()) {
-                heading = validYaw.yaw();
-            // Else, calculate yaw from odometry by getting position deltas
-            } else {
-                SwerveModulePosition[] deltas = calculateModuleDeltas(lastModulePosition, positions);
-                Twist2d twist = kinematics.toTwist2d(deltas);
-                heading = heading.plus(new Rotation2d(twist.dtheta));
-            }
+    private void updateHighRateControl(double timestamp) {
+        boolean enabled;
+        long stamp;
+        do {
+            stamp = targetLock.beginRead();
+            highRateTarget.vxMetersPerSecond = handoffVx;
+            highRateTarget.vyMetersPerSecond = handoffVy;
+            highRateTarget.omegaRadiansPerSecond = handoffOmega;
+            enabled = handoffEnabled;
+        } while (!targetLock.validate(stamp));
+
+        double dt = Double.isNaN(lastControlTimestamp) ? 0.0 : timestamp - lastControlTimestamp;
+        lastControlTimestamp = timestamp;
+
+        // Never integrate across more than a few missed updates
+        dt = Math.min(dt, 4 / RobotConfiguration.ODOMETRY_UPDATE_FREQUENCY);
+        updateModuleSetpoints(highRateTarget, dt, enabled);
+        for (int i = 0; i < modules.size(); i++) {
+            modules.get(i).periodic();
         }
+        dispatcher.flush();
+    }
 
-        lastModulePosition = Arrays.copyOf(positions, positions.length);
-        synchronized (poseEstimator) {
-            poseEstimator.update(heading, positions);
+    private void updateModuleSetpoints(ChassisSpeeds target, double dt, boolean enabled) {
+        if (enabled) {
+            if (RobotConfiguration.TIP_AWARE_ACCELERATION) {
+                target = accelerationLimiter.calculate(target, dt);
+            }
+            setpointGenerator.generate(target, dt);
+            for (int i = 0; i < modules.size(); i++) {
+                modules.get(i).setDesiredState(setpointGenerator.getSpeed(i), setpointGenerator.getAngle(i));
+            }
+        } else {
+            // Start from where the modules actually are once enabled, as published by the odometry thread. Read in
+            // place, as this runs every odometry update in high rate control mode
+            double vx, vy, omega;
+            long stamp;
+            do {
+                stamp = snapshotLock.beginRead();
+                vx = snapshotVx;
+                vy = snapshotVy;
+                omega = snapshotOmega;
+                System.arraycopy(snapshotSpeeds, 0, seedSpeeds, 0, seedSpeeds.length);
+                System.arraycopy(snapshotAngles, 0, seedAngles, 0, seedAngles.length);
+            } while (!snapshotLock.validate(stamp));
+
+            for (int i = 0; i < modules.size(); i++) {
+                setpointGenerator.reset(i, seedSpeeds[i], seedAngles[i]);
+            }
+            accelerationLimiter.reset(vx, vy, omega);
         }
     }
 
     @Override
-    public void periodic() {
-        modules.forEach(SwerveModule::periodic);
+    public void onPeriodic() {
+        if (!RobotConfiguration.HIGH_RATE_SWERVE_CONTROL) {
+            modules.forEach(SwerveModule::periodic);
+            dispatcher.flush();
+        }
+
+        double current = 0;
+        for (int i = 0; i < modules.size(); i++) {
+            current += modules.get(i).getSupplyCurrent();
+        }
+        energyMeter.update(current, RobotController.getBatteryVoltage(), StatusSignalHub.getInstance().getTimestamp());
+
+        accelerationLimiter.setElevatorHeight(Elevator.getInstance().getElevatorHeight());
+
+        // Fused here rather than on the odometry thread, so a batch of measurements never delays an update
+        visionFusion.fuse(odometry);
 
         Pose2d pose = getPose();
 
-        fieldPose.setRobotPose(pose);
-        SmartDashboard.putData(fieldPose);
+        poseDashboard.set(pose);
+        visionAcceptedDashboard.set(visionFusion.getAcceptedCount());
+        visionRejectedDashboard.set(visionFusion.getRejectedCount());
+
+        odometryHealth.read(healthSummary, healthHistogram, healthStaleness);
+        healthDashboard.set(healthSummary);
+        histogramDashboard.set(healthHistogram);
+        stalenessDashboard.set(healthStaleness);
+
+        if (calibrationProgress != null) {
+            calibrationStatusDashboard.set(calibrationProgress.getStatus());
+            calibrationProgressDashboard.set(calibrationProgress.getFraction());
+        }
 
-        if (RobotState.isEnabled()) {
-            var swerveModuleStates = kinematics.toSwerveModuleStates(targetSpeeds);
-            SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, ChassisConstants.MAX_VELOCITY);
-            swerveModuleStates = accelerationLimiter.calculate(swerveModuleStates);
-            setSwerveStates(swerveModuleStates);
+        if (RobotConfiguration.HIGH_RATE_SWERVE_CONTROL) {
+            targetLock.beginWrite();
+            handoffVx = targetSpeeds.vxMetersPerSecond;
+            handoffVy = targetSpeeds.vyMetersPerSecond;
+            handoffOmega = targetSpeeds.omegaRadiansPerSecond;
+            handoffEnabled = RobotState.isEnabled();
+            targetLock.endWrite();
+        } else {
+            updateModuleSetpoints(targetSpeeds, Robot.kDefaultPeriod, RobotState.isEnabled());
         }
     }
 
+    @Override
+    public void onDisabledInit() {
+        // The robot is most likely to lose power between matches, keep what was recorded so far
+        if (odometryLog != null) {
+            odometryLog.sync();
+        }
+    }
+
+    // SIMULATION
+
+    private void simulationUpdate() {
+        double dt = ChassisConstants.SIMULATION_PERIOD;
+        double supplyVoltage = RobotController.getBatteryVoltage();
+
+        for (int i = 0; i < modules.size(); i++) {
+            SwerveModule module = modules.get(i);
+            module.simulationPeriodic(dt, supplyVoltage);
+            simulatedSpeeds[i] = module.getSimulatedSpeed();
+            simulatedAngles[i] = module.getSimulatedAngle();
+        }
+
+        // The gyro follows the rotation the wheels produce
+        primitiveKinematics.toChassisMotion(simulatedSpeeds, simulatedAngles, simulatedMotion);
+        double yawRate = Units.radiansToDegrees(simulatedMotion[2]);
+        simulatedYaw += yawRate * dt;
+
+        Pigeon2SimState pigeonState = pigeon.getSimState();
+        pigeonState.setSupplyVoltage(supplyVoltage);
+        pigeonState.setRawYaw(simulatedYaw);
+        pigeonState.setAngularVelocityZ(yawRate);
+    }
+
     @Override
     public double getEnergyUsed() {
-        return 0;
+        return energyMeter.getEnergy();
     }
 
     @Override
     public double getTotalCurrent() {
-        return 0;
+        return energyMeter.getCurrent();
     }
 }
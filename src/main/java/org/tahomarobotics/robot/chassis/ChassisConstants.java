@@ -24,6 +24,45 @@ public class ChassisConstants {
     public static final double MAX_VELOCITY = SWERVE_MOTOR.freeSpeedRadPerSec * DRIVE_REDUCTION * WHEEL_RADIUS * 0.5;
     public static final double MAX_ANGULAR_VELOCITY = MAX_VELOCITY / Math.hypot(HALF_TRACK_WIDTH, HALF_WHEELBASE);
     public static final double ACCELERATION_LIMIT = 3.0;
+    public static final double MAX_STEER_VELOCITY = SWERVE_MOTOR.freeSpeedRadPerSec * STEER_REDUCTION * 0.8;
+    public static final double DRIVE_STATOR_CURRENT_LIMIT = 80.0; // Amps
+    public static final double DRIVE_SUPPLY_CURRENT_LIMIT = 60.0; // Amps, with a fresh battery
+    public static final double DRIVE_MIN_SUPPLY_CURRENT_LIMIT = 20.0; // Amps, with a sagging battery
+    public static final double DRIVE_CURRENT_WEIGHT = 3.0; // Share of the current budget
+    public static final double ROBOT_MASS = 60.0; // Kilograms, with battery and bumpers
+
+    // Tipping, see TipAwareRateLimiter
+    public static final double TRACTION_ACCELERATION_LIMIT = 8.0; // Meters / second squared, what the wheels can deliver
+    public static final double MAX_ANGULAR_ACCELERATION = ACCELERATION_LIMIT / Math.hypot(HALF_TRACK_WIDTH, HALF_WHEELBASE); // Radians / second squared
+    public static final double STOWED_COG_HEIGHT = 0.25; // Meters, with the elevator down
+    public static final double ELEVATOR_LIFTED_MASS = 12.0; // Kilograms, carriage, stages and end effector
+    public static final double COG_OFFSET_X = 0.0; // Meters forward of the robot centre
+    public static final double COG_OFFSET_Y = 0.0; // Meters left of the robot centre
+    public static final double TIP_SAFETY_FACTOR = 0.5;
+
+    // Simulation
+    public static final double DRIVE_INERTIA = ROBOT_MASS / 4 * WHEEL_RADIUS * WHEEL_RADIUS; // Kilogram meters squared, at the wheel
+    public static final double STEER_INERTIA = 0.004; // Kilogram meters squared, at the module
+    public static final double SIMULATION_PERIOD = 0.005; // Seconds, faster than the main loop so odometry sees fresh samples
+
+    // Control request changes smaller than these are not sent until the keep-alive
+    public static final double DRIVE_VELOCITY_EPSILON = 0.01; // Rotations / second
+    public static final double STEER_POSITION_EPSILON = 0.0005; // Rotations
+
+    public static final String SWERVE_CALIBRATION = "Swerve Offsets";
+    public static final String LEGACY_SWERVE_CALIBRATION_FILE = "SwerveCalibration";
+
+    public static final String ODOMETRY_LOG_DIRECTORY = "logs";
+    public static final long ODOMETRY_LOG_MAX_SIZE = 32L * 1024 * 1024; // Bytes per log, about 14 minutes
+    public static final long ODOMETRY_LOG_TOTAL_SIZE = 128L * 1024 * 1024; // Bytes kept across logs, oldest deleted first
+    public static final double ODOMETRY_TIMEOUT_TRIGGER = 5; // Timeouts per second that dump the flight recorder
+
+    public static final double DASHBOARD_POSE_THRESHOLD = 0.01; // Meters and radians
+    public static final double DASHBOARD_POSE_RATE = 25.0; // Hz
+    public static final double DASHBOARD_STALENESS_THRESHOLD = 0.001; // Seconds
+
+    public static final double POSE_HISTORY_DURATION = 1.5; // Seconds
+    public static final int POSE_HISTORY_CAPACITY = (int) Math.ceil(POSE_HISTORY_DURATION * RobotConfiguration.ODOMETRY_UPDATE_FREQUENCY) + 1;
 
     public static final Translation2d FRONT_LEFT_OFFSET = new Translation2d(HALF_WHEELBASE, HALF_TRACK_WIDTH);
     public static final Translation2d FRONT_RIGHT_OFFSET = new Translation2d(HALF_WHEELBASE, -HALF_TRACK_WIDTH);
@@ -39,6 +78,11 @@ public class ChassisConstants {
             .withMotorOutput(new MotorOutputConfigs()
                     .withNeutralMode(NeutralModeValue.Brake)
                     .withInverted(InvertedValue.Clockwise_Positive))
+            .withCurrentLimits(new CurrentLimitsConfigs()
+                    .withStatorCurrentLimit(DRIVE_STATOR_CURRENT_LIMIT)
+                    .withStatorCurrentLimitEnable(true)
+                    .withSupplyCurrentLimit(DRIVE_SUPPLY_CURRENT_LIMIT)
+                    .withSupplyCurrentLimitEnable(true))
             .withMotionMagic(new MotionMagicConfigs()
                     .withMotionMagicAcceleration(120)
                     .withMotionMagicJerk(360)
@@ -0,0 +1,151 @@
+package org.tahomarobotics.robot.chassis;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.util.SeqLock;
+
+import java.util.Arrays;
+
+/**
+ * Rate, timeout, jitter and staleness counters for the odometry thread.
+ * <p>
+ * {@link #record} is called once per odometry wake-up and only touches preallocated primitives. Once per
+ * window the accumulated counters are published through a seqlock, where the main loop picks them up.
+ */
+public class OdometryHealth {
+    private static final Logger logger = LoggerFactory.getLogger(OdometryHealth.class);
+
+    public static final int HISTOGRAM_BINS = 21;
+    private static final double HISTOGRAM_BIN_WIDTH = 0.001; // Seconds, the last bin collects everything above
+    private static final double WINDOW = 1.0; // Seconds
+    private static final int TIMEOUT_WARNING_THRESHOLD = 5; // Per window
+
+    // Indices into the summary array
+    public static final int RATE = 0;
+    public static final int TIMEOUTS_PER_SECOND = 1;
+    public static final int TOTAL_TIMEOUTS = 2;
+    public static final int MAX_PERIOD = 3;
+    public static final int SUMMARY_SIZE = 4;
+
+    private final BaseStatusSignal[] signals;
+    private final String[] signalNames;
+
+    // Odometry thread accumulators
+    private double windowStart = Double.NaN;
+    private double lastSample = Double.NaN;
+    private int windowSamples;
+    private int windowTimeouts;
+    private double windowMaxPeriod;
+    private long totalTimeouts;
+    private final double[] windowHistogram = new double[HISTOGRAM_BINS];
+    private final double[] windowStaleness;
+
+    // Published once per window
+    private final SeqLock lock = new SeqLock();
+    private final double[] summary = new double[SUMMARY_SIZE];
+    private final double[] histogram = new double[HISTOGRAM_BINS];
+    private final double[] staleness;
+
+    public OdometryHealth(BaseStatusSignal[] signals, String[] signalNames) {
+        this.signals = signals;
+        this.signalNames = signalNames;
+        windowStaleness = new double[signals.length];
+        staleness = new double[signals.length];
+    }
+
+    /**
+     * Records one odometry wake-up.
+     *
+     * @param status - the status returned by waitForAll
+     * @param timestamp - FPGA time in seconds of the wake-up
+     */
+    public void record(StatusCode status, double timestamp) {
+        if (Double.isNaN(windowStart)) {
+            windowStart = timestamp;
+        } else {
+            double period = timestamp - lastSample;
+            int bin = (int) (period / HISTOGRAM_BIN_WIDTH);
+            windowHistogram[Math.min(Math.max(bin, 0), HISTOGRAM_BINS - 1)]++;
+            windowMaxPeriod = Math.max(windowMaxPeriod, period);
+        }
+        lastSample = timestamp;
+        windowSamples++;
+
+        if (!status.isOK()) {
+            windowTimeouts++;
+            totalTimeouts++;
+        }
+
+        // Age of each signal's latest frame, in the Phoenix time base
+        double now = Utils.getCurrentTimeSeconds();
+        for (int i = 0; i < signals.length; i++) {
+            windowStaleness[i] = Math.max(windowStaleness[i], now - signals[i].getTimestamp().getTime());
+        }
+
+        double elapsed = timestamp - windowStart;
+        if (elapsed >= WINDOW) {
+            publish(elapsed);
+            windowStart = timestamp;
+        }
+    }
+
+    private void publish(double elapsed) {
+        if (windowTimeouts >= TIMEOUT_WARNING_THRESHOLD) {
+            logger.warn("Odometry signals timed out " + windowTimeouts + " times in the last " + elapsed + " seconds");
+        }
+
+        lock.beginWrite();
+        summary[RATE] = windowSamples / elapsed;
+        summary[TIMEOUTS_PER_SECOND] = windowTimeouts / elapsed;
+        summary[TOTAL_TIMEOUTS] = totalTimeouts;
+        summary[MAX_PERIOD] = windowMaxPeriod;
+        System.arraycopy(windowHistogram, 0, histogram, 0, HISTOGRAM_BINS);
+        System.arraycopy(windowStaleness, 0, staleness, 0, staleness.length);
+        lock.endWrite();
+
+        windowSamples = 0;
+        windowTimeouts = 0;
+        windowMaxPeriod = 0;
+        Arrays.fill(windowHistogram, 0);
+        Arrays.fill(windowStaleness, 0);
+    }
+
+    /**
+     * Copies the last published window.
+     *
+     * @param summaryOut - receives rate, timeouts per second, total timeouts and max period
+     * @param histogramOut - receives the sample period histogram in 1 ms bins
+     * @param stalenessOut - receives the max age in seconds of each signal
+     */
+    public void read(double[] summaryOut, double[] histogramOut, double[] stalenessOut) {
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            System.arraycopy(summary, 0, summaryOut, 0, SUMMARY_SIZE);
+            System.arraycopy(histogram, 0, histogramOut, 0, HISTOGRAM_BINS);
+            System.arraycopy(staleness, 0, stalenessOut, 0, staleness.length);
+        } while (!lock.validate(stamp));
+    }
+
+    public double getTimeoutsPerSecond() {
+        double timeouts;
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            timeouts = summary[TIMEOUTS_PER_SECOND];
+        } while (!lock.validate(stamp));
+
+        return timeouts;
+    }
+
+    public int getSignalCount() {
+        return signals.length;
+    }
+
+    public String[] getSignalNames() {
+        return signalNames;
+    }
+}
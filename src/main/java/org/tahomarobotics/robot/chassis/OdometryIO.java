@@ -0,0 +1,12 @@
+package org.tahomarobotics.robot.chassis;
+
+/**
+ * Source of the raw odometry inputs, separating the hardware from the odometry math.
+ */
+public interface OdometryIO {
+
+    /**
+     * Fills everything but the sample timestamp. Must not allocate.
+     */
+    void updateInputs(OdometryInputs inputs);
+}
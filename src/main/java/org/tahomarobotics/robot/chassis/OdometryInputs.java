@@ -0,0 +1,29 @@
+package org.tahomarobotics.robot.chassis;
+
+/**
+ * Every raw input of one odometry update, preallocated and overwritten in place each sample.
+ * Filled by an {@link OdometryIO} on the robot, or by {@link OdometryLogReader} in replay.
+ */
+public class OdometryInputs {
+    // FPGA time of the sample in seconds
+    public double timestamp;
+
+    // Latency compensated yaw in degrees and the Phoenix time of its frame
+    public boolean yawValid;
+    public double yawDegrees;
+    public double yawTimestamp;
+
+    public final SwerveModulePositions positions;
+    public final double[] speeds; // Meters / second
+    public final double[] signalTimestamps; // Phoenix time of each module's drive position frame
+
+    public OdometryInputs(int moduleCount) {
+        positions = new SwerveModulePositions(moduleCount);
+        speeds = new double[moduleCount];
+        signalTimestamps = new double[moduleCount];
+    }
+
+    public int getModuleCount() {
+        return speeds.length;
+    }
+}
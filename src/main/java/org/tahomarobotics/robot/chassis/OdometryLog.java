@@ -0,0 +1,226 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact binary log of every odometry input, read back by {@link OdometryLogReader}.
+ * <p>
+ * Records are written into pooled direct buffers, which a background thread writes to disk once full or once
+ * per flush period. Recording never blocks or allocates; when the writer falls behind and the pool runs dry,
+ * records are dropped and counted. Records are self-delimiting, so a log with drops still reads back. Once the file
+ * reaches its size limit the writer stops, and {@link #sync()} has it force what was written to disk.
+ * <p>
+ * Layout, big endian: header {@code int MAGIC, int VERSION, int moduleCount}, then records starting with a type byte.
+ * A sample is {@code double timestamp, byte yawValid, double yawDegrees, double yawTimestamp} followed per module by
+ * {@code double distance, double angle, double speed, double signalTimestamp}. A reset is a sample followed by
+ * {@code double x, double y, double theta}. A vision record is
+ * {@code double timestamp, double x, double y, double theta, double xyStdDev, double thetaStdDev}.
+ */
+public class OdometryLog {
+    private static final Logger logger = LoggerFactory.getLogger(OdometryLog.class);
+
+    public static final int MAGIC = 0x4F444F4D; // "ODOM"
+    public static final int VERSION = 1;
+
+    public static final byte SAMPLE = 1;
+    public static final byte RESET = 2;
+    public static final byte VISION = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024; // Bytes
+    private static final int POOL_SIZE = 8;
+    private static final double FLUSH_PERIOD = 1.0; // Seconds
+
+    private final FileChannel channel;
+    private final int moduleCount;
+    private final int sampleSize;
+    private final long maxSize;
+
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(POOL_SIZE);
+    private ByteBuffer current;
+    private double lastFlush = Double.NaN;
+
+    private long dropped = 0;
+    private volatile boolean forceRequested = false;
+
+    private OdometryLog(FileChannel channel, int moduleCount, long maxSize) {
+        this.channel = channel;
+        this.moduleCount = moduleCount;
+        this.maxSize = maxSize;
+        sampleSize = 1 + 8 + 1 + 8 + 8 + moduleCount * 4 * 8;
+
+        for (int i = 0; i < POOL_SIZE; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+
+        Thread writer = new Thread(this::writer, "Odometry Log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Creates a new log file, including missing parent directories.
+     *
+     * @param maxSize - bytes the file may grow to before recording stops
+     */
+    public static OdometryLog create(Path path, int moduleCount, long maxSize) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.putInt(MAGIC).putInt(VERSION).putInt(moduleCount).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        logger.info("Recording odometry to " + path);
+        return new OdometryLog(channel, moduleCount, maxSize);
+    }
+
+    // RECORDING
+
+    public synchronized void sample(OdometryInputs inputs) {
+        if (reserve(sampleSize)) {
+            current.put(SAMPLE);
+            putInputs(inputs);
+        }
+        flushIfDue(inputs.timestamp);
+    }
+
+    public synchronized void reset(OdometryInputs inputs, Pose2d pose) {
+        if (reserve(sampleSize + 3 * 8)) {
+            current.put(RESET);
+            putInputs(inputs);
+            current.putDouble(pose.getX())
+                    .putDouble(pose.getY())
+                    .putDouble(pose.getRotation().getRadians());
+        }
+        flushIfDue(inputs.timestamp);
+    }
+
+    public synchronized void vision(double timestamp, double x, double y, double theta, double xyStdDev, double thetaStdDev) {
+        if (reserve(1 + 6 * 8)) {
+            current.put(VISION)
+                    .putDouble(timestamp)
+                    .putDouble(x)
+                    .putDouble(y)
+                    .putDouble(theta)
+                    .putDouble(xyStdDev)
+                    .putDouble(thetaStdDev);
+        }
+    }
+
+    private void putInputs(OdometryInputs inputs) {
+        current.putDouble(inputs.timestamp)
+                .put((byte) (inputs.yawValid ? 1 : 0))
+                .putDouble(inputs.yawDegrees)
+                .putDouble(inputs.yawTimestamp);
+        for (int i = 0; i < moduleCount; i++) {
+            current.putDouble(inputs.positions.getDistance(i))
+                    .putDouble(inputs.positions.getAngle(i))
+                    .putDouble(inputs.speeds[i])
+                    .putDouble(inputs.signalTimestamps[i]);
+        }
+    }
+
+    private boolean reserve(int size) {
+        if (current != null && current.remaining() >= size) {
+            return true;
+        }
+
+        handOff();
+        current = free.poll();
+        if (current == null) {
+            dropped++;
+            return false;
+        }
+        return true;
+    }
+
+    private void flushIfDue(double timestamp) {
+        if (Double.isNaN(lastFlush)) {
+            lastFlush = timestamp;
+        } else if (timestamp - lastFlush >= FLUSH_PERIOD) {
+            handOff();
+            lastFlush = timestamp;
+        }
+    }
+
+    /**
+     * Hands the buffered records to the writer and has it force the file to disk once written, without waiting.
+     */
+    public synchronized void sync() {
+        handOff();
+        forceRequested = true;
+    }
+
+    private void handOff() {
+        if (current != null && current.position() > 0) {
+            current.flip();
+            // Never fails, there are only as many buffers as the queue holds
+            full.offer(current);
+            current = null;
+        }
+    }
+
+    // WRITER
+
+    private void writer() {
+        boolean stopped = false;
+        long written = 12; // Header
+        while (true) {
+            ByteBuffer buffer;
+            try {
+                buffer = full.poll((long) (FLUSH_PERIOD * 1000), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (buffer != null) {
+                if (!stopped && written + buffer.remaining() > maxSize) {
+                    logger.warn("Odometry log reached " + written + " bytes, recording stopped");
+                    stopped = true;
+                }
+                if (!stopped) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            written += channel.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        logger.error("Failed to write odometry log, recording stopped", e);
+                        stopped = true;
+                    }
+                }
+
+                buffer.clear();
+                free.offer(buffer);
+            }
+
+            // Force only once everything handed off before the request is written
+            if (forceRequested && full.isEmpty()) {
+                forceRequested = false;
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    logger.error("Failed to force odometry log to disk", e);
+                }
+            }
+        }
+    }
+
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+}
@@ -0,0 +1,83 @@
+package org.tahomarobotics.robot.chassis;
+
+import java.io.*;
+import java.nio.file.Path;
+
+/**
+ * Reads the records of an {@link OdometryLog} back in order.
+ */
+public class OdometryLogReader implements AutoCloseable {
+
+    public static final int END = -1;
+
+    private final DataInputStream input;
+    private final int moduleCount;
+
+    public OdometryLogReader(Path path) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16));
+
+        if (input.readInt() != OdometryLog.MAGIC) {
+            input.close();
+            throw new IOException(path + " is not an odometry log");
+        }
+        int version = input.readInt();
+        if (version != OdometryLog.VERSION) {
+            input.close();
+            throw new IOException(path + " has unsupported odometry log version " + version);
+        }
+        moduleCount = input.readInt();
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param inputs - receives the inputs of sample and reset records
+     * @param values - receives {x, y, theta} of a reset, or {timestamp, x, y, theta, xyStdDev, thetaStdDev} of a vision record
+     * @return the record type from {@link OdometryLog}, or {@link #END} at the end of the log
+     */
+    public int next(OdometryInputs inputs, double[] values) throws IOException {
+        int type = input.read();
+        switch (type) {
+            case -1 -> {
+                return END;
+            }
+            case OdometryLog.SAMPLE -> readInputs(inputs);
+            case OdometryLog.RESET -> {
+                readInputs(inputs);
+                readValues(values, 3);
+            }
+            case OdometryLog.VISION -> readValues(values, 6);
+            default -> throw new IOException("Unknown odometry log record type " + type);
+        }
+        return type;
+    }
+
+    private void readInputs(OdometryInputs inputs) throws IOException {
+        inputs.timestamp = input.readDouble();
+        inputs.yawValid = input.readByte() != 0;
+        inputs.yawDegrees = input.readDouble();
+        inputs.yawTimestamp = input.readDouble();
+        for (int i = 0; i < moduleCount; i++) {
+            double distance = input.readDouble();
+            double angle = input.readDouble();
+            inputs.positions.set(i, distance, angle);
+            inputs.speeds[i] = input.readDouble();
+            inputs.signalTimestamps[i] = input.readDouble();
+        }
+    }
+
+    private void readValues(double[] values, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            values[i] = input.readDouble();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,84 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.tahomarobotics.robot.RobotMap;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays a recorded odometry log through {@link SwerveOdometry} as fast as the CPU allows, without a robot.
+ * <p>
+ * Usage: {@code OdometryReplay <log> [poses.csv]}, or {@code ./gradlew replayOdometry -Plog=<log> [-Pcsv=<poses.csv>]}.
+ * The optional CSV receives the pose after every sample, for comparing estimator changes.
+ */
+public class OdometryReplay {
+
+    private static final Translation2d[] MODULE_OFFSETS = {
+            RobotMap.FRONT_LEFT_MOD.offset(),
+            RobotMap.FRONT_RIGHT_MOD.offset(),
+            RobotMap.BACK_LEFT_MOD.offset(),
+            RobotMap.BACK_RIGHT_MOD.offset()
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.err.println("Usage: OdometryReplay <log> [poses.csv]");
+            System.exit(1);
+        }
+
+        try (OdometryLogReader reader = new OdometryLogReader(Path.of(args[0]));
+             PrintWriter csv = args.length > 1 ? new PrintWriter(Files.newBufferedWriter(Path.of(args[1]))) : null) {
+            if (reader.getModuleCount() != MODULE_OFFSETS.length) {
+                throw new IOException("Log has " + reader.getModuleCount() + " modules, expected " + MODULE_OFFSETS.length);
+            }
+
+            OdometryInputs inputs = new OdometryInputs(reader.getModuleCount());
+            double[] values = new double[6];
+            SwerveOdometry odometry = new SwerveOdometry(MODULE_OFFSETS, null);
+
+            if (csv != null) {
+                csv.println("timestamp,x,y,theta");
+            }
+
+            long samples = 0, resets = 0, visions = 0;
+            long start = System.nanoTime();
+            Pose2d pose = odometry.getEstimatedPosition();
+            try {
+                int type;
+                while ((type = reader.next(inputs, values)) != OdometryLogReader.END) {
+                    switch (type) {
+                        case OdometryLog.SAMPLE -> {
+                            pose = odometry.update(inputs);
+                            samples++;
+                            if (csv != null) {
+                                csv.println(inputs.timestamp + "," + pose.getX() + "," + pose.getY() + "," + pose.getRotation().getRadians());
+                            }
+                        }
+                        case OdometryLog.RESET -> {
+                            odometry.reset(inputs, new Pose2d(values[0], values[1], new Rotation2d(values[2])));
+                            resets++;
+                        }
+                        case OdometryLog.VISION -> {
+                            odometry.addVisionMeasurement(values[0], values[1], values[2], values[3], values[4], values[5]);
+                            visions++;
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                // The robot was switched off mid-record
+                System.err.println("Log ends with a truncated record");
+            }
+            double elapsed = (System.nanoTime() - start) * 1e-9;
+
+            System.out.println("Samples: " + samples + ", resets: " + resets + ", vision measurements: " + visions);
+            System.out.println("Replayed in " + elapsed + " s, " + Math.round(samples / elapsed) + " samples / s");
+            System.out.println("Final pose: " + pose);
+        }
+    }
+}
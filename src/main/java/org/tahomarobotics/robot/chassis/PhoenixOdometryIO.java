@@ -0,0 +1,36 @@
+package org.tahomarobotics.robot.chassis;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+
+import java.util.List;
+
+/**
+ * Reads the odometry inputs from the swerve modules and the pigeon, after the odometry thread's waitForAll.
+ */
+public class PhoenixOdometryIO implements OdometryIO {
+
+    private final List<SwerveModule> modules;
+    private final StatusSignal<Angle> yaw;
+    private final StatusSignal<AngularVelocity> yawVelocity;
+
+    public PhoenixOdometryIO(List<SwerveModule> modules, StatusSignal<Angle> yaw, StatusSignal<AngularVelocity> yawVelocity) {
+        this.modules = modules;
+        this.yaw = yaw;
+        this.yawVelocity = yawVelocity;
+    }
+
+    @Override
+    public void updateInputs(OdometryInputs inputs) {
+        for (int i = 0; i < modules.size(); i++) {
+            modules.get(i).updateInputs(inputs, i);
+        }
+
+        // Yaw signals were refreshed by waitForAll, so only their status needs checking
+        inputs.yawValid = yaw.getStatus().isOK() && yawVelocity.getStatus().isOK();
+        inputs.yawDegrees = BaseStatusSignal.getLatencyCompensatedValueAsDouble(yaw, yawVelocity);
+        inputs.yawTimestamp = yaw.getTimestamp().getTime();
+    }
+}
@@ -0,0 +1,219 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.tahomarobotics.robot.util.SeqLock;
+
+import java.util.Optional;
+
+/**
+ * Fixed capacity ring buffer of timestamped poses and module positions stored in primitive parallel arrays.
+ * <p>
+ * Filled by the odometry thread (the only writer) and readable from any thread without locking or
+ * allocation. Lookups binary search the timestamps and interpolate between the two bracketing samples.
+ */
+public class PoseHistory {
+
+    // Indices into the array filled by sample()
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int THETA = 2;
+
+    private final int capacity;
+    private final int moduleCount;
+
+    private final double[] time;
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+    private final double[] distances;
+    private final double[] angles;
+
+    private final SeqLock lock = new SeqLock();
+    private int head;
+    private int size;
+
+    public PoseHistory(int capacity, int moduleCount) {
+        this.capacity = capacity;
+        this.moduleCount = moduleCount;
+
+        time = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+        distances = new double[capacity * moduleCount];
+        angles = new double[capacity * moduleCount];
+    }
+
+    /**
+     * Appends a sample. Timestamps must be increasing; older samples are dropped.
+     */
+    public void add(double timestamp, double poseX, double poseY, double poseTheta, SwerveModulePositions positions) {
+        if (size > 0 && timestamp <= time[index(size - 1)]) {
+            return;
+        }
+
+        lock.beginWrite();
+        int i = size < capacity ? (head + size) % capacity : head;
+
+        time[i] = timestamp;
+        x[i] = poseX;
+        y[i] = poseY;
+        theta[i] = poseTheta;
+        for (int m = 0; m < moduleCount; m++) {
+            distances[i * moduleCount + m] = positions.getDistance(m);
+            angles[i * moduleCount + m] = positions.getAngle(m);
+        }
+
+        if (size < capacity) {
+            size++;
+        } else {
+            head = (head + 1) % capacity;
+        }
+        lock.endWrite();
+    }
+
+    /**
+     * Interpolates the pose at the given time.
+     *
+     * @param timestamp - FPGA time in seconds
+     * @param out - receives {x, y, theta}
+     * @return false if the time is outside the stored history
+     */
+    public boolean sample(double timestamp, double[] out) {
+        boolean found;
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            found = interpolatePose(timestamp, out);
+        } while (!lock.validate(stamp));
+
+        return found;
+    }
+
+    /**
+     * Interpolates the module positions at the given time.
+     *
+     * @param timestamp - FPGA time in seconds
+     * @param outDistances - receives module distances in meters
+     * @param outAngles - receives module angles in radians
+     * @return false if the time is outside the stored history
+     */
+    public boolean sampleModulePositions(double timestamp, double[] outDistances, double[] outAngles) {
+        boolean found;
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            found = interpolateModules(timestamp, outDistances, outAngles);
+        } while (!lock.validate(stamp));
+
+        return found;
+    }
+
+    /**
+     * Convenience lookup that allocates the resulting pose.
+     */
+    public Optional<Pose2d> getPose(double timestamp) {
+        double[] out = new double[3];
+        if (!sample(timestamp, out)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Pose2d(out[X], out[Y], new Rotation2d(out[THETA])));
+    }
+
+    public double getOldestTimestamp() {
+        double oldest;
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            oldest = size > 0 ? time[head] : Double.NaN;
+        } while (!lock.validate(stamp));
+
+        return oldest;
+    }
+
+    public double getNewestTimestamp() {
+        double newest;
+        long stamp;
+        do {
+            stamp = lock.beginRead();
+            newest = size > 0 ? time[index(size - 1)] : Double.NaN;
+        } while (!lock.validate(stamp));
+
+        return newest;
+    }
+
+    // The following run inside a read section and may see inconsistent state; results are discarded then
+
+    private boolean interpolatePose(double timestamp, double[] out) {
+        int upper = findUpper(timestamp);
+        if (upper < 0) {
+            return false;
+        }
+
+        int hi = index(upper);
+        if (upper == 0 || time[hi] == timestamp) {
+            out[X] = x[hi];
+            out[Y] = y[hi];
+            out[THETA] = theta[hi];
+            return true;
+        }
+
+        int lo = index(upper - 1);
+        double t = fraction(lo, hi, timestamp);
+        out[X] = x[lo] + (x[hi] - x[lo]) * t;
+        out[Y] = y[lo] + (y[hi] - y[lo]) * t;
+        out[THETA] = theta[lo] + MathUtil.angleModulus(theta[hi] - theta[lo]) * t;
+        return true;
+    }
+
+    private boolean interpolateModules(double timestamp, double[] outDistances, double[] outAngles) {
+        int upper = findUpper(timestamp);
+        if (upper < 0) {
+            return false;
+        }
+
+        int hi = index(upper);
+        int lo = upper == 0 ? hi : index(upper - 1);
+        double t = lo == hi ? 0.0 : fraction(lo, hi, timestamp);
+        for (int m = 0; m < moduleCount; m++) {
+            int l = lo * moduleCount + m;
+            int h = hi * moduleCount + m;
+            outDistances[m] = distances[l] + (distances[h] - distances[l]) * t;
+            outAngles[m] = angles[l] + MathUtil.angleModulus(angles[h] - angles[l]) * t;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the logical position of the first sample at or after the timestamp, or -1 if out of range.
+     */
+    private int findUpper(double timestamp) {
+        int n = Math.min(size, capacity);
+        if (n == 0 || timestamp < time[index(0)] || timestamp > time[index(n - 1)]) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = n - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (time[index(mid)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private double fraction(int lo, int hi, double timestamp) {
+        double span = time[hi] - time[lo];
+        return span > 0.0 ? MathUtil.clamp((timestamp - time[lo]) / span, 0.0, 1.0) : 0.0;
+    }
+
+    private int index(int logical) {
+        return Math.floorMod(head + logical, capacity);
+    }
+}
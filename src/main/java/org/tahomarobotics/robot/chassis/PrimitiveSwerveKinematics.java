@@ -0,0 +1,135 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Swerve kinematics over primitive arrays so the high rate loops never allocate.
+ * Results match {@link edu.wpi.first.math.kinematics.SwerveDriveKinematics} for the same module offsets.
+ */
+public class PrimitiveSwerveKinematics {
+
+    private final int count;
+    private final double[] moduleX;
+    private final double[] moduleY;
+
+    // Rows of the forward kinematics pseudo-inverse, applied to interleaved (x, y) module vectors
+    private final double[] forwardVx;
+    private final double[] forwardVy;
+    private final double[] forwardOmega;
+
+    public PrimitiveSwerveKinematics(Translation2d... offsets) {
+        count = offsets.length;
+        moduleX = new double[count];
+        moduleY = new double[count];
+        for (int i = 0; i < count; i++) {
+            moduleX[i] = offsets[i].getX();
+            moduleY[i] = offsets[i].getY();
+        }
+
+        // Inverse kinematics rows per module are [1, 0, -y] and [0, 1, x]; form (A^T A)^-1 A^T once
+        double sumX = 0, sumY = 0, sumR2 = 0;
+        for (int i = 0; i < count; i++) {
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+            sumR2 += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+        }
+        double[][] ata = {
+                {count, 0, -sumY},
+                {0, count, sumX},
+                {-sumY, sumX, sumR2}
+        };
+        double[][] inv = invert3x3(ata);
+
+        forwardVx = new double[count * 2];
+        forwardVy = new double[count * 2];
+        forwardOmega = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            // Columns of A^T for the x and y rows of module i
+            double[] colX = {1, 0, -moduleY[i]};
+            double[] colY = {0, 1, moduleX[i]};
+            forwardVx[2 * i] = dot(inv[0], colX);
+            forwardVx[2 * i + 1] = dot(inv[0], colY);
+            forwardVy[2 * i] = dot(inv[1], colX);
+            forwardVy[2 * i + 1] = dot(inv[1], colY);
+            forwardOmega[2 * i] = dot(inv[2], colX);
+            forwardOmega[2 * i + 1] = dot(inv[2], colY);
+        }
+    }
+
+    public int getModuleCount() {
+        return count;
+    }
+
+    /**
+     * Inverse kinematics into per module velocity vectors.
+     *
+     * @param outX - receives the x component of each module velocity
+     * @param outY - receives the y component of each module velocity
+     */
+    public void toModuleVectors(double vx, double vy, double omega, double[] outX, double[] outY) {
+        for (int i = 0; i < count; i++) {
+            outX[i] = vx - omega * moduleY[i];
+            outY[i] = vy + omega * moduleX[i];
+        }
+    }
+
+    /**
+     * Scales all module vectors down together so the fastest module does not exceed the max speed.
+     */
+    public static void desaturate(double[] x, double[] y, double maxSpeed) {
+        double fastest = 0;
+        for (int i = 0; i < x.length; i++) {
+            fastest = Math.max(fastest, Math.hypot(x[i], y[i]));
+        }
+        if (fastest > maxSpeed) {
+            double scale = maxSpeed / fastest;
+            for (int i = 0; i < x.length; i++) {
+                x[i] *= scale;
+                y[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Least squares chassis motion from per module magnitudes and angles.
+     * With speeds this yields chassis speeds, with distance deltas it yields the odometry twist.
+     *
+     * @param magnitudes - module speeds or distance deltas
+     * @param angles - module angles in radians
+     * @param out - receives {x, y, theta}
+     */
+    public void toChassisMotion(double[] magnitudes, double[] angles, double[] out) {
+        double x = 0, y = 0, theta = 0;
+        for (int i = 0; i < count; i++) {
+            double mx = magnitudes[i] * Math.cos(angles[i]);
+            double my = magnitudes[i] * Math.sin(angles[i]);
+            x += forwardVx[2 * i] * mx + forwardVx[2 * i + 1] * my;
+            y += forwardVy[2 * i] * mx + forwardVy[2 * i + 1] * my;
+            theta += forwardOmega[2 * i] * mx + forwardOmega[2 * i + 1] * my;
+        }
+        out[0] = x;
+        out[1] = y;
+        out[2] = theta;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[][] invert3x3(double[][] m) {
+        double a = m[0][0], b = m[0][1], c = m[0][2];
+        double d = m[1][0], e = m[1][1], f = m[1][2];
+        double g = m[2][0], h = m[2][1], k = m[2][2];
+
+        double det = a * (e * k - f * h) - b * (d * k - f * g) + c * (d * h - e * g);
+        if (det == 0.0) {
+            throw new IllegalArgumentException("Swerve module offsets are degenerate");
+        }
+
+        return new double[][]{
+                {(e * k - f * h) / det, (c * h - b * k) / det, (b * f - c * e) / det},
+                {(f * g - d * k) / det, (a * k - c * g) / det, (c * d - a * f) / det},
+                {(d * h - e * g) / det, (b * g - a * h) / det, (a * e - b * d) / det}
+        };
+    }
+}
@@ -5,22 +5,27 @@ import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.controls.PositionDutyCycle;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.wpilibj.RobotBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tahomarobotics.robot.RobotConfiguration;
 import org.tahomarobotics.robot.RobotMap;
+import org.tahomarobotics.robot.util.ControlDispatcher;
+import org.tahomarobotics.robot.util.ConfigurationEngine;
 import org.tahomarobotics.robot.util.RobustConfigurator;
+import org.tahomarobotics.robot.util.SignalRegistry;
+import org.tahomarobotics.robot.util.StatusSignalHub;
 
 import java.util.List;
 
@@ -37,7 +42,9 @@ public class SwerveModule {
     private final TalonFX steerMotor;
     private final CANcoder steerEncoder;
 
-    private SwerveModuleState targetState = new SwerveModuleState();
+    // Target speed in meters / second and angle in rotations
+    private double targetSpeed = 0.0;
+    private double targetAngle = 0.0;
 
     private final StatusSignal<Angle> steerPosition;
     private final StatusSignal<AngularVelocity> steerVelocity;
@@ -47,13 +54,17 @@ public class SwerveModule {
     private final StatusSignal<Current> driveCurrent;
     private final StatusSignal<Current> steerCurrent;
 
-    private final VelocityVoltage driveMotorVelocity = new VelocityVoltage(0.0).withEnableFOC(RobotConfiguration.CANIVORE_PHOENIX_PRO);
-    private final PositionDutyCycle steerMotorPosition = new PositionDutyCycle(0.0).withEnableFOC(RobotConfiguration.CANIVORE_PHOENIX_PRO);
+    private final VelocityVoltage driveMotorVelocity = new VelocityVoltage(0.0).withEnableFOC(RobotConfiguration.CANIVORE_PHOENIX_PRO).withUpdateFreqHz(0);
+    private final PositionDutyCycle steerMotorPosition = new PositionDutyCycle(0.0).withEnableFOC(RobotConfiguration.CANIVORE_PHOENIX_PRO).withUpdateFreqHz(0);
+    private final ControlDispatcher.Channel driveChannel;
+    private final ControlDispatcher.Channel steerChannel;
 
     private final RobustConfigurator configurator;
 
-    public SwerveModule(RobotMap.SwerveModuleDescriptor descriptor, double angularOffset){
-        configurator = new RobustConfigurator(logger);
+    private final SwerveModuleSim sim;
+
+    public SwerveModule(RobotMap.SwerveModuleDescriptor descriptor, double angularOffset, ControlDispatcher dispatcher){
+        configurator = new RobustConfigurator(descriptor.moduleName());
 
         name = descriptor.moduleName();
         translationOffset = descriptor.offset();
@@ -63,9 +74,13 @@ public class SwerveModule {
         steerMotor = new TalonFX(descriptor.steerId(), RobotConfiguration.CANBUS_NAME);
         steerEncoder = new CANcoder(descriptor.encoderId(), RobotConfiguration.CANBUS_NAME);
 
+        // The steer motor fuses the encoder, so it is configured once the encoder is
+        var encoderJob = configurator.configureCancoder(steerEncoder, encoderConfiguration, angularOffset, descriptor.moduleName() + " encoder");
+        configurator.configureTalonFX(steerMotor, steerMotorConfiguration, descriptor.encoderId(), descriptor.moduleName() + " steer motor", encoderJob);
         configurator.configureTalonFX(driveMotor, driveMotorConfiguration, descriptor.moduleName() + " drive motor");
-        configurator.configureTalonFX(steerMotor, steerMotorConfiguration, descriptor.encoderId(), descriptor.moduleName() + " steer motor");
-        configurator.configureCancoder(steerEncoder, encoderConfiguration, angularOffset, descriptor.moduleName() + " encoder");
+
+        driveChannel = dispatcher.register(driveMotor, DRIVE_VELOCITY_EPSILON);
+        steerChannel = dispatcher.register(steerMotor, STEER_POSITION_EPSILON);
 
         drivePosition = driveMotor.getPosition();
         driveVelocity = driveMotor.getVelocity();
@@ -77,37 +92,77 @@ public class SwerveModule {
         driveCurrent = driveMotor.getSupplyCurrent();
         steerCurrent = steerMotor.getSupplyCurrent();
 
-        BaseStatusSignal.setUpdateFrequencyForAll(RobotConfiguration.ODOMETRY_UPDATE_FREQUENCY,
+        SignalRegistry registry = SignalRegistry.getInstance();
+        registry.register(RobotConfiguration.CANBUS_NAME, RobotConfiguration.ODOMETRY_RATES,
                 drivePosition,
                 driveVelocity,
+                steerPosition,
+                steerVelocity
+        );
+        registry.register(RobotConfiguration.CANBUS_NAME, RobotConfiguration.TELEMETRY_RATES,
                 driveAcceleration,
-                steerVelocity,
                 driveCurrent,
                 steerCurrent
         );
-        ParentDevice.optimizeBusUtilizationForAll(driveMotor, steerMotor, steerEncoder);
+        registry.registerDevices(driveMotor, steerMotor, steerEncoder);
+
+        StatusSignalHub.getInstance().register(RobotConfiguration.CANBUS_NAME, driveCurrent, steerCurrent);
+
+        sim = RobotBase.isSimulation() ? new SwerveModuleSim(driveMotor, steerMotor, steerEncoder) : null;
     }
 
     // CALIBRATION
 
-    public void initCalibration() {
-        configurator.setCancoderAngularOffset(steerEncoder, 0);
-        configurator.setMotorNeutralMode(steerMotor, NeutralModeValue.Coast);
+    public List<ConfigurationEngine.Job> initCalibration() {
+        return List.of(
+                configurator.setCancoderAngularOffset(steerEncoder, 0),
+                configurator.setMotorNeutralMode(steerMotor, NeutralModeValue.Coast)
+        );
     }
 
-    public double finalizeCalibration() {
-        angularOffset = -steerPosition.refresh().getValueAsDouble();
-        configurator.setCancoderAngularOffset(steerEncoder, angularOffset);
-        configurator.setMotorNeutralMode(steerMotor, NeutralModeValue.Brake);
+    /**
+     * Takes the steer position as the new offset.
+     *
+     * @param steerAngle - steer angle in rotations with the offset zeroed, as sampled by the odometry thread
+     */
+    public double captureCalibration(double steerAngle) {
+        angularOffset = -steerAngle;
         return angularOffset;
     }
 
-    public void cancelCalibration() {
-        configurator.setCancoderAngularOffset(steerEncoder, angularOffset);
+    public List<ConfigurationEngine.Job> finalizeCalibration() {
+        return List.of(
+                configurator.setCancoderAngularOffset(steerEncoder, angularOffset),
+                configurator.setMotorNeutralMode(steerMotor, NeutralModeValue.Brake)
+        );
+    }
+
+    public List<ConfigurationEngine.Job> cancelCalibration() {
+        return List.of(
+                configurator.setCancoderAngularOffset(steerEncoder, angularOffset),
+                configurator.setMotorNeutralMode(steerMotor, NeutralModeValue.Brake)
+        );
+    }
+
+    // CURRENT
+
+    /**
+     * @return supply current of both motors in amps
+     */
+    public double getSupplyCurrent() {
+        return driveCurrent.getValueAsDouble() + steerCurrent.getValueAsDouble();
+    }
+
+    public ConfigurationEngine.Job setDriveSupplyLimit(double limit) {
+        return configurator.setSupplyCurrentLimit(driveMotor, limit);
     }
 
     // GETTERS
 
+    public String getName() {
+        return name;
+    }
+
     public Translation2d getTranslationOffset() {
         return translationOffset;
     }
@@ -116,6 +171,22 @@ public class SwerveModule {
         return new SwerveModulePosition(getDrivePosition(), Rotation2d.fromRotations(getSteerAngle()));
     }
 
+    /**
+     * Writes this module's latency compensated position into a preallocated buffer without allocating.
+     */
+    public void getPosition(SwerveModulePositions positions, int index) {
+        positions.set(index, getDrivePosition(), Units.rotationsToRadians(getSteerAngle()));
+    }
+
+    /**
+     * Writes this module's odometry inputs without allocating.
+     */
+    public void updateInputs(OdometryInputs inputs, int index) {
+        getPosition(inputs.positions, index);
+        inputs.speeds[index] = getDriveVelocity();
+        inputs.signalTimestamps[index] = drivePosition.getTimestamp().getTime();
+    }
+
     public double getSteerAngle() {
         return BaseStatusSignal.getLatencyCompensatedValueAsDouble(steerPosition, steerVelocity);
     }
@@ -133,18 +204,27 @@ public class SwerveModule {
     }
 
     public void setDesiredState(SwerveModuleState state) {
-        targetState = state;
+        setDesiredState(state.speedMetersPerSecond, state.angle.getRadians());
+    }
+
+    /**
+     * @param speed - drive speed in meters / second
+     * @param angle - steer angle in radians
+     */
+    public void setDesiredState(double speed, double angle) {
+        targetSpeed = speed;
+        targetAngle = Units.radiansToRotations(angle);
     }
 
-    public List<BaseStatusSignal> getStatusSignals() {
+    /**
+     * Signals the odometry thread waits on, all at the odometry rate.
+     */
+    public List<BaseStatusSignal> getOdometrySignals() {
         return List.of(
                 drivePosition,
-                driveAcceleration,
                 driveVelocity,
                 steerPosition,
-                steerVelocity,
-                driveCurrent,
-                steerCurrent
+                steerVelocity
         );
     }
 
@@ -155,11 +235,62 @@ public class SwerveModule {
     public void updateDesiredState() {
         double steerAngle = getSteerAngle();
 
-        targetState.optimize(Rotation2d.fromRotations(steerAngle));
-        targetState.angle = Rotation2d.fromRotations((targetState.angle.getRotations() % 1.0 + 1.0) % 1.0);
-        targetState.speedMetersPerSecond *= targetState.angle.minus(Rotation2d.fromRotations(steerAngle)).getCos();
+        double speed = optimizeSpeed(targetSpeed, targetAngle, steerAngle);
+        double angle = optimizeAngle(targetAngle, steerAngle);
+
+        double velocity = speed / DRIVE_POSITION_COEFFICIENT;
+        driveChannel.set(driveMotorVelocity.withVelocity(velocity), velocity);
+        steerChannel.set(steerMotorPosition.withPosition(angle), angle);
+    }
+
+    // SIMULATION
+
+    public void simulationPeriodic(double dt, double supplyVoltage) {
+        sim.update(dt, supplyVoltage);
+    }
+
+    /**
+     * @return simulated wheel speed in meters / second
+     */
+    public double getSimulatedSpeed() {
+        return sim.getSpeed();
+    }
+
+    /**
+     * @return simulated steer angle in radians, in the robot frame
+     */
+    public double getSimulatedAngle() {
+        return Units.rotationsToRadians(sim.getRawAngle() + angularOffset);
+    }
+
+    // STATE MATH, all angles in rotations
+
+    /**
+     * Returns the target angle wrapped to [0, 1), flipped half a turn if that is closer to the current angle.
+     */
+    static double optimizeAngle(double targetAngle, double currentAngle) {
+        double error = wrapHalf(targetAngle - currentAngle);
+        return wrapUnit(Math.abs(error) > 0.25 ? targetAngle + 0.5 : targetAngle);
+    }
+
+    /**
+     * Returns the target speed, reversed if the wheel is flipped, scaled by the cosine of the remaining
+     * steer error so the module does not drive sideways while turning.
+     */
+    static double optimizeSpeed(double targetSpeed, double targetAngle, double currentAngle) {
+        double error = wrapHalf(targetAngle - currentAngle);
+        if (Math.abs(error) > 0.25) {
+            targetSpeed = -targetSpeed;
+            error = wrapHalf(error + 0.5);
+        }
+        return targetSpeed * Math.cos(Units.rotationsToRadians(error));
+    }
+
+    private static double wrapUnit(double rotations) {
+        return rotations - Math.floor(rotations);
+    }
 
-        driveMotor.setControl(driveMotorVelocity.withVelocity(targetState.speedMetersPerSecond / DRIVE_POSITION_COEFFICIENT));
-        steerMotor.setControl(steerMotorPosition.withPosition(targetState.angle.getRotations()));
+    private static double wrapHalf(double rotations) {
+        return rotations - Math.floor(rotations + 0.5);
     }
 }
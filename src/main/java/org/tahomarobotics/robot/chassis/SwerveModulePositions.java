@@ -0,0 +1,89 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Preallocated, mutable module positions backed by primitive arrays.
+ * <p>
+ * Setting and copying positions only touches primitives. The {@link SwerveModulePosition} view exists for the
+ * WPILib estimator and is brought up to date when it is handed out, creating a {@link Rotation2d} for each module
+ * whose angle changed since. That is the only place allocating, next to the estimator's own allocations.
+ */
+public class SwerveModulePositions {
+
+    private final double[] distances;
+    private final double[] angles;
+    private final boolean[] stale;
+    private final SwerveModulePosition[] view;
+
+    public SwerveModulePositions(int count) {
+        distances = new double[count];
+        angles = new double[count];
+        stale = new boolean[count];
+        view = new SwerveModulePosition[count];
+        for (int i = 0; i < count; i++) {
+            view[i] = new SwerveModulePosition();
+        }
+    }
+
+    public int size() {
+        return distances.length;
+    }
+
+    /**
+     * @param distance - drive distance in meters
+     * @param angle - steer angle in radians
+     */
+    public void set(int index, double distance, double angle) {
+        distances[index] = distance;
+        if (angles[index] != angle) {
+            angles[index] = angle;
+            stale[index] = true;
+        }
+    }
+
+    public void copyFrom(SwerveModulePositions other) {
+        System.arraycopy(other.distances, 0, distances, 0, distances.length);
+        for (int i = 0; i < view.length; i++) {
+            if (angles[i] != other.angles[i]) {
+                angles[i] = other.angles[i];
+                stale[i] = true;
+            }
+        }
+    }
+
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    public double getAngle(int index) {
+        return angles[index];
+    }
+
+    /**
+     * Direct access to the backing arrays for primitive kinematics. Do not modify.
+     */
+    public double[] distances() {
+        return distances;
+    }
+
+    public double[] angles() {
+        return angles;
+    }
+
+    /**
+     * Returns the live view handed to the pose estimator, updated to the current positions. Do not keep
+     * references to it.
+     */
+    public SwerveModulePosition[] asModulePositions() {
+        for (int i = 0; i < view.length; i++) {
+            view[i].distanceMeters = distances[i];
+            if (stale[i]) {
+                view[i].angle = new Rotation2d(angles[i]);
+                stale[i] = false;
+            }
+        }
+        return view;
+    }
+}
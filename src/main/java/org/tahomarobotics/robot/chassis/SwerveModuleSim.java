@@ -0,0 +1,85 @@
+package org.tahomarobotics.robot.chassis;
+
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * Physics model of one swerve module, feeding the Phoenix sim state of its motors and encoder.
+ * The drive wheel carries a quarter of the robot mass, the steer axis a fixed inertia.
+ */
+public class SwerveModuleSim {
+
+    private final TalonFXSimState driveState;
+    private final TalonFXSimState steerState;
+    private final CANcoderSimState encoderState;
+
+    private final DCMotorSim driveSim;
+    private final DCMotorSim steerSim;
+
+    public SwerveModuleSim(TalonFX driveMotor, TalonFX steerMotor, CANcoder steerEncoder) {
+        driveState = driveMotor.getSimState();
+        steerState = steerMotor.getSimState();
+        encoderState = steerEncoder.getSimState();
+
+        // Match the motor inversion in the configurations
+        driveState.Orientation = ChassisReference.Clockwise_Positive;
+        steerState.Orientation = ChassisReference.Clockwise_Positive;
+
+        driveSim = new DCMotorSim(
+                LinearSystemId.createDCMotorSystem(SWERVE_MOTOR, DRIVE_INERTIA, 1 / DRIVE_REDUCTION), SWERVE_MOTOR);
+        steerSim = new DCMotorSim(
+                LinearSystemId.createDCMotorSystem(SWERVE_MOTOR, STEER_INERTIA, 1 / STEER_REDUCTION), SWERVE_MOTOR);
+    }
+
+    /**
+     * Advances the model with the voltages the motors currently apply.
+     *
+     * @param dt - time step in seconds
+     * @param supplyVoltage - battery voltage in volts
+     */
+    public void update(double dt, double supplyVoltage) {
+        driveState.setSupplyVoltage(supplyVoltage);
+        steerState.setSupplyVoltage(supplyVoltage);
+        encoderState.setSupplyVoltage(supplyVoltage);
+
+        driveSim.setInputVoltage(driveState.getMotorVoltage());
+        steerSim.setInputVoltage(steerState.getMotorVoltage());
+        driveSim.update(dt);
+        steerSim.update(dt);
+
+        // Mechanism rotations back to rotor rotations
+        double driveRotations = driveSim.getAngularPositionRotations();
+        double driveVelocity = Units.radiansToRotations(driveSim.getAngularVelocityRadPerSec());
+        driveState.setRawRotorPosition(driveRotations / DRIVE_REDUCTION);
+        driveState.setRotorVelocity(driveVelocity / DRIVE_REDUCTION);
+
+        double steerRotations = steerSim.getAngularPositionRotations();
+        double steerVelocity = Units.radiansToRotations(steerSim.getAngularVelocityRadPerSec());
+        steerState.setRawRotorPosition(steerRotations / STEER_REDUCTION);
+        steerState.setRotorVelocity(steerVelocity / STEER_REDUCTION);
+        encoderState.setRawPosition(steerRotations);
+        encoderState.setVelocity(steerVelocity);
+    }
+
+    /**
+     * @return wheel speed in meters / second
+     */
+    public double getSpeed() {
+        return driveSim.getAngularVelocityRadPerSec() * WHEEL_RADIUS;
+    }
+
+    /**
+     * @return steer angle in rotations, before the encoder's magnet offset
+     */
+    public double getRawAngle() {
+        return steerSim.getAngularPositionRotations();
+    }
+}
@@ -0,0 +1,131 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Pose estimation from raw odometry inputs, free of any hardware so it runs the same on the robot and in replay.
+ * <p>
+ * Every call that reaches the estimator is recorded to the optional log first, so replaying a log repeats the
+ * exact sequence of estimator calls. All methods synchronize on this object, which guards the estimator.
+ */
+public class SwerveOdometry {
+
+    private final PrimitiveSwerveKinematics kinematics;
+    private final SwerveDrivePoseEstimator estimator;
+    private final OdometryLog log;
+
+    private final SwerveModulePositions lastPositions;
+    private final double[] deltas;
+    private final double[] motion = new double[3];
+    private double headingRadians = 0;
+    private Rotation2d heading = new Rotation2d(); // Handed to the estimator, recreated only when the heading changed
+    private double headingCreated = 0; // Radians heading was created from, as Rotation2d wraps its value
+    private double vx, vy, omega;
+
+    /**
+     * @param offsets - module offsets from the robot center
+     * @param log - log receiving every input, or null
+     */
+    public SwerveOdometry(Translation2d[] offsets, OdometryLog log) {
+        this.log = log;
+
+        kinematics = new PrimitiveSwerveKinematics(offsets);
+        lastPositions = new SwerveModulePositions(offsets.length);
+        deltas = new double[offsets.length];
+
+        SwerveModulePosition[] initial = new SwerveModulePosition[offsets.length];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = new SwerveModulePosition();
+        }
+        estimator = new SwerveDrivePoseEstimator(new SwerveDriveKinematics(offsets), new Rotation2d(), initial, new Pose2d());
+    }
+
+    /**
+     * Resets the estimate to a pose, taking the yaw and module positions in the inputs as the new reference.
+     */
+    public synchronized void reset(OdometryInputs inputs, Pose2d pose) {
+        if (log != null) {
+            log.reset(inputs, pose);
+        }
+
+        headingRadians = Math.toRadians(inputs.yawDegrees);
+        heading = new Rotation2d(headingRadians);
+        headingCreated = headingRadians;
+        lastPositions.copyFrom(inputs.positions);
+        estimator.resetPosition(heading, inputs.positions.asModulePositions(), pose);
+    }
+
+    /**
+     * Advances the estimate by one sample and returns the new pose.
+     */
+    public synchronized Pose2d update(OdometryInputs inputs) {
+        if (log != null) {
+            log.sample(inputs);
+        }
+
+        SwerveModulePositions positions = inputs.positions;
+
+        // If pigeon yaw is valid, accept it as the real value
+        if (inputs.yawValid) {
+            headingRadians = Math.toRadians(inputs.yawDegrees);
+        // Else, calculate yaw from odometry by getting position deltas
+        } else {
+            for (int i = 0; i < deltas.length; i++) {
+                deltas[i] = positions.getDistance(i) - lastPositions.getDistance(i);
+            }
+            kinematics.toChassisMotion(deltas, positions.angles(), motion);
+            headingRadians += motion[2];
+        }
+
+        lastPositions.copyFrom(positions);
+        if (headingCreated != headingRadians) {
+            heading = new Rotation2d(headingRadians);
+            headingCreated = headingRadians;
+        }
+        Pose2d pose = estimator.updateWithTime(inputs.timestamp, heading, positions.asModulePositions());
+
+        kinematics.toChassisMotion(inputs.speeds, positions.angles(), motion);
+        vx = motion[0];
+        vy = motion[1];
+        omega = motion[2];
+
+        return pose;
+    }
+
+    /**
+     * Fuses a vision pose measured at an FPGA timestamp.
+     */
+    public synchronized void addVisionMeasurement(double timestamp, double x, double y, double theta,
+                                                  double xyStdDev, double thetaStdDev) {
+        if (log != null) {
+            log.vision(timestamp, x, y, theta, xyStdDev, thetaStdDev);
+        }
+
+        estimator.addVisionMeasurement(new Pose2d(x, y, new Rotation2d(theta)), timestamp,
+                VecBuilder.fill(xyStdDev, xyStdDev, thetaStdDev));
+    }
+
+    public synchronized Pose2d getEstimatedPosition() {
+        return estimator.getEstimatedPosition();
+    }
+
+    // Robot relative velocity of the last update, in meters / second and radians / second
+
+    public double getVx() {
+        return vx;
+    }
+
+    public double getVy() {
+        return vy;
+    }
+
+    public double getOmega() {
+        return omega;
+    }
+}
@@ -0,0 +1,147 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Generates kinematically feasible module setpoints from desired chassis speeds.
+ * <p>
+ * Each step moves all module velocity vectors from the previous setpoint towards the desired ones by a
+ * common fraction, chosen so no module exceeds its available acceleration. The available acceleration is
+ * the lesser of the wheel acceleration limit and what the current limited drive motor can deliver at the
+ * module's speed. Modules that cannot steer to the new heading within the step keep turning at the
+ * maximum steer velocity with their speed scaled by the cosine of the remaining error, so they do not scrub.
+ * <p>
+ * The generator works on primitive, preallocated state and is deterministic in the supplied time step.
+ */
+public class SwerveSetpointGenerator {
+
+    private static final double MINIMUM_SPEED = 1e-3; // Meters / second, below this the angle is held
+
+    private final PrimitiveSwerveKinematics kinematics;
+    private final int count;
+
+    private final double maxSpeed;
+    private final double maxWheelAcceleration;
+    private final double maxSteerVelocity;
+
+    // Drive motor model for the torque limited acceleration
+    private final DCMotor driveMotor;
+    private final double driveReduction;
+    private final double wheelRadius;
+    private final double currentLimit;
+    private final double massPerModule;
+
+    // Previous setpoint, speeds in meters / second and angles in radians
+    private final double[] speeds;
+    private final double[] angles;
+
+    private final double[] desiredX;
+    private final double[] desiredY;
+
+    public SwerveSetpointGenerator(PrimitiveSwerveKinematics kinematics, double maxSpeed, double maxWheelAcceleration,
+                                   double maxSteerVelocity, DCMotor driveMotor, double driveReduction,
+                                   double wheelRadius, double currentLimit, double robotMass) {
+        this.kinematics = kinematics;
+        this.count = kinematics.getModuleCount();
+        this.maxSpeed = maxSpeed;
+        this.maxWheelAcceleration = maxWheelAcceleration;
+        this.maxSteerVelocity = maxSteerVelocity;
+        this.driveMotor = driveMotor;
+        this.driveReduction = driveReduction;
+        this.wheelRadius = wheelRadius;
+        this.currentLimit = currentLimit;
+        this.massPerModule = robotMass / count;
+
+        speeds = new double[count];
+        angles = new double[count];
+        desiredX = new double[count];
+        desiredY = new double[count];
+    }
+
+    /**
+     * Restarts generation from the measured module states, e.g. while disabled.
+     */
+    public void reset(int index, double speed, double angle) {
+        speeds[index] = speed;
+        angles[index] = angle;
+    }
+
+    /**
+     * Advances the setpoint by one step towards the desired robot relative chassis speeds.
+     * Results are read with {@link #getSpeed(int)} and {@link #getAngle(int)}.
+     *
+     * @param desired - desired robot relative speeds
+     * @param dt - time step in seconds
+     */
+    public void generate(ChassisSpeeds desired, double dt) {
+        kinematics.toModuleVectors(desired.vxMetersPerSecond, desired.vyMetersPerSecond,
+                desired.omegaRadiansPerSecond, desiredX, desiredY);
+
+        PrimitiveSwerveKinematics.desaturate(desiredX, desiredY, maxSpeed);
+
+        // Largest common fraction of the velocity change every module can achieve this step
+        double fraction = 1.0;
+        for (int i = 0; i < count; i++) {
+            double previousX = speeds[i] * Math.cos(angles[i]);
+            double previousY = speeds[i] * Math.sin(angles[i]);
+            double change = Math.hypot(desiredX[i] - previousX, desiredY[i] - previousY);
+
+            boolean braking = Math.hypot(desiredX[i], desiredY[i]) < Math.abs(speeds[i]);
+            double allowed = getAvailableAcceleration(speeds[i], braking) * dt;
+            if (change > allowed) {
+                fraction = Math.min(fraction, allowed / change);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            double previousX = speeds[i] * Math.cos(angles[i]);
+            double previousY = speeds[i] * Math.sin(angles[i]);
+            double x = previousX + fraction * (desiredX[i] - previousX);
+            double y = previousY + fraction * (desiredY[i] - previousY);
+
+            double speed = Math.hypot(x, y);
+            if (speed < MINIMUM_SPEED) {
+                speeds[i] = 0.0;
+                continue;
+            }
+
+            // Steer the shortest way, driving backwards if that is closer
+            double angle = Math.atan2(y, x);
+            double error = MathUtil.angleModulus(angle - angles[i]);
+            if (Math.abs(error) > Math.PI / 2) {
+                error = MathUtil.angleModulus(error + Math.PI);
+                speed = -speed;
+            }
+
+            double maxStep = maxSteerVelocity * dt;
+            double step = MathUtil.clamp(error, -maxStep, maxStep);
+
+            angles[i] = MathUtil.angleModulus(angles[i] + step);
+            speeds[i] = speed * Math.cos(error - step);
+        }
+    }
+
+    /**
+     * Acceleration the drive motor can produce at the given wheel speed, limited by the stator current
+     * limit, the back EMF at that speed when speeding up and the wheel acceleration limit.
+     */
+    private double getAvailableAcceleration(double wheelSpeed, boolean braking) {
+        double current = currentLimit;
+        if (!braking) {
+            double motorSpeed = Math.abs(wheelSpeed) / (wheelRadius * driveReduction);
+            current = Math.min(current, driveMotor.getCurrent(motorSpeed, driveMotor.nominalVoltageVolts));
+        }
+        double force = driveMotor.getTorque(Math.max(current, 0.0)) / driveReduction / wheelRadius;
+        return Math.min(maxWheelAcceleration, force / massPerModule);
+    }
+
+    public double getSpeed(int index) {
+        return speeds[index];
+    }
+
+    public double getAngle(int index) {
+        return angles[index];
+    }
+}
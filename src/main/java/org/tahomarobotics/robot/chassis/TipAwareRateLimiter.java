@@ -0,0 +1,77 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.tahomarobotics.robot.elevator.ElevatorConstants;
+import org.tahomarobotics.robot.util.SwerveRateLimiter;
+
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * Limits chassis acceleration to what the robot can take without tipping, with the elevator where it is.
+ * <p>
+ * Accelerating the robot tips it back about the footprint edge behind the centre of gravity. The robot stays on
+ * its wheels while the point where gravity and the inertial force together meet the ground stays inside the
+ * wheel footprint, so the allowed acceleration in a direction is {@code g * d / h}, where {@code d} is how far
+ * that point can move from under the centre of gravity before it leaves the footprint and {@code h} is the centre
+ * of gravity height. The footprint is longer than it is wide, so the robot may accelerate harder forwards than
+ * sideways. The centre of gravity rises with the elevator, which lifts {@link ChassisConstants#ELEVATOR_LIFTED_MASS}
+ * of the robot. The limit never exceeds what the wheels can deliver.
+ */
+public class TipAwareRateLimiter extends SwerveRateLimiter {
+
+    private static final double GRAVITY = 9.81; // Meters / second squared
+
+    // Set by the main loop, read wherever the limiter runs
+    private volatile double elevatorHeight = ElevatorConstants.ELEVATOR_MAX_POSE;
+
+    public TipAwareRateLimiter() {
+        super(TRACTION_ACCELERATION_LIMIT, MAX_ANGULAR_ACCELERATION);
+    }
+
+    /**
+     * @param height - elevator height in meters, not finite if unknown, which assumes it is all the way up
+     */
+    public void setElevatorHeight(double height) {
+        elevatorHeight = Double.isFinite(height)
+                ? MathUtil.clamp(height, 0, ElevatorConstants.ELEVATOR_MAX_POSE)
+                : ElevatorConstants.ELEVATOR_MAX_POSE;
+    }
+
+    /**
+     * @return centre of gravity height above the floor in meters
+     */
+    public double getCenterOfGravityHeight() {
+        return STOWED_COG_HEIGHT + elevatorHeight * ELEVATOR_LIFTED_MASS / ROBOT_MASS;
+    }
+
+    @Override
+    protected double getAccelerationLimit(ChassisSpeeds input, double direction) {
+        return getAccelerationLimit(direction);
+    }
+
+    /**
+     * @param direction - robot relative direction of the acceleration in radians
+     * @return allowed acceleration in meters / second squared
+     */
+    public double getAccelerationLimit(double direction) {
+        // The ground point moves opposite to the acceleration, find where it leaves the footprint
+        double ux = -Math.cos(direction);
+        double uy = -Math.sin(direction);
+        double distance = Math.min(
+                distanceToEdge(COG_OFFSET_X, ux, HALF_WHEELBASE),
+                distanceToEdge(COG_OFFSET_Y, uy, HALF_TRACK_WIDTH));
+
+        double limit = TIP_SAFETY_FACTOR * GRAVITY * distance / getCenterOfGravityHeight();
+        return Math.min(limit, TRACTION_ACCELERATION_LIMIT);
+    }
+
+    private static double distanceToEdge(double position, double direction, double halfLength) {
+        if (direction > 0) {
+            return Math.max(halfLength - position, 0) / direction;
+        } else if (direction < 0) {
+            return Math.max(halfLength + position, 0) / -direction;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
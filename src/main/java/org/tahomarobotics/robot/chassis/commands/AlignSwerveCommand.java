@@ -1,28 +1,38 @@
 package org.tahomarobotics.robot.chassis.commands;
 
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.chassis.CalibrationProgress;
 import org.tahomarobotics.robot.chassis.Chassis;
 
 public class AlignSwerveCommand extends Command {
+    private static final Logger logger = LoggerFactory.getLogger(AlignSwerveCommand.class);
+
+    private static final String FINALIZE_KEY = "Finalize";
 
     private final Chassis chassis = Chassis.getInstance();
-    private boolean finalized = false;
+    private final NetworkTableEntry finalizeEntry = SmartDashboard.getEntry(FINALIZE_KEY);
+
+    // The device updates run in the background, the command only waits for them
+    private CalibrationProgress progress;
+    private boolean finalizing = false;
 
     public AlignSwerveCommand() {
         addRequirements(chassis);
     }
 
-    private static final String FINALIZE_KEY = "Finalize";
-
     @Override
     public void initialize() {
         if (!RobotState.isDisabled()) {
             cancel();
         }
-        SmartDashboard.putBoolean(FINALIZE_KEY, false);
-        chassis.initializeCalibration();
+        finalizeEntry.setBoolean(false);
+        finalizing = false;
+        progress = chassis.initializeCalibration();
     }
 
     @Override
@@ -30,20 +40,28 @@ public class AlignSwerveCommand extends Command {
         if (!RobotState.isDisabled()) {
             cancel();
         }
-        finalized = SmartDashboard.getBoolean(FINALIZE_KEY, false);
+        // Offsets captured against a device that kept its old offset would be wrong on every later boot
+        if (!finalizing && progress.isDone() && progress.getFailures() > 0) {
+            logger.error("Swerve calibration cancelled, " + progress.getFailures() + " device updates failed while zeroing");
+            cancel();
+            return;
+        }
+        if (!finalizing && progress.isDone() && finalizeEntry.getBoolean(false)) {
+            finalizing = true;
+            progress = chassis.finalizeCalibration();
+        }
     }
 
     @Override
     public boolean isFinished() {
-        return finalized;
+        return finalizing && progress.isDone();
     }
 
     @Override
     public void end(boolean interrupted) {
-        if (interrupted) {
+        // Once finalizing, the new offsets are on their way and there is nothing left to restore
+        if (interrupted && !finalizing) {
             chassis.cancelCalibration();
-        } else {
-            chassis.finalizeCalibration();
         }
     }
 
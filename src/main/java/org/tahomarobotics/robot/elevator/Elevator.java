@@ -1,14 +1,21 @@
 package org.tahomarobotics.robot.elevator;
 
-import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.sim.TalonFXSimState;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Commands;
 import org.slf4j.Logger;
@@ -17,10 +24,24 @@ import org.tahomarobotics.robot.Robot;
 import org.tahomarobotics.robot.RobotConfiguration;
 import org.tahomarobotics.robot.RobotMap;
 import org.tahomarobotics.robot.elevator.commands.ElevatorZeroCommand;
+import org.tahomarobotics.robot.telemetry.DashboardDouble;
+import org.tahomarobotics.robot.telemetry.DashboardPublisher;
+import org.tahomarobotics.robot.telemetry.DoubleEntry;
+import org.tahomarobotics.robot.telemetry.FlightRecorder;
+import org.tahomarobotics.robot.telemetry.Telemetry;
+import org.tahomarobotics.robot.util.CalibrationStore;
+import org.tahomarobotics.robot.util.ConfigurationEngine;
+import org.tahomarobotics.robot.util.ControlDispatcher;
+import org.tahomarobotics.robot.util.CurrentBudget;
+import org.tahomarobotics.robot.util.EnergyMeter;
 import org.tahomarobotics.robot.util.RobustConfigurator;
+import org.tahomarobotics.robot.util.SignalRegistry;
+import org.tahomarobotics.robot.util.StatusSignalHub;
 import org.tahomarobotics.robot.util.SubsystemIF;
 import org.tahomarobotics.robot.util.SysIdTest;
 
+import java.util.List;
+
 import static org.tahomarobotics.robot.elevator.ElevatorConstants.*;
 
 public class Elevator extends SubsystemIF {
@@ -28,7 +49,10 @@ public class Elevator extends SubsystemIF {
     public static final Logger logger = LoggerFactory.getLogger(Elevator.class);
     private static final Elevator INSTANCE = new Elevator();
     private double targetHeight;
-    private final MotionMagicVoltage positionControl = new MotionMagicVoltage(0.0).withEnableFOC(RobotConfiguration.RIO_PHOENIX_PRO);
+    private final MotionMagicVoltage positionControl = new MotionMagicVoltage(0.0).withEnableFOC(RobotConfiguration.RIO_PHOENIX_PRO).withUpdateFreqHz(0);
+    private final VoltageOut voltageControl = new VoltageOut(0.0).withEnableFOC(RobotConfiguration.RIO_PHOENIX_PRO).withUpdateFreqHz(0);
+    private final NeutralOut neutralControl = new NeutralOut().withUpdateFreqHz(0);
+    private final ControlDispatcher.Channel controlChannel;
     TalonFX elevatorRight;
     TalonFX elevatorLeft;
 
@@ -38,29 +62,80 @@ public class Elevator extends SubsystemIF {
     private final StatusSignal<Angle> motorPosition;
     private final StatusSignal<AngularVelocity> elevatorVelocity;
     private final StatusSignal<Current> elevatorCurrent;
+    private final StatusSignal<Voltage> motorVoltage;
+    private final StatusSignal<Current> rightSupplyCurrent;
+    private final StatusSignal<Current> leftSupplyCurrent;
+
+    private final RobustConfigurator configurator = new RobustConfigurator();
+    private final EnergyMeter energyMeter = new EnergyMeter();
+
+    private final ElevatorSim elevatorSim;
+
+    private final DoubleEntry heightTelemetry = Telemetry.getInstance().doubleEntry("Elevator/Height");
+    private final DoubleEntry targetTelemetry = Telemetry.getInstance().doubleEntry("Elevator/Target Height");
+    private final DoubleEntry velocityTelemetry = Telemetry.getInstance().doubleEntry("Elevator/Velocity");
+    private final DoubleEntry currentTelemetry = Telemetry.getInstance().doubleEntry("Elevator/Current");
+    private final DoubleEntry voltageTelemetry = Telemetry.getInstance().doubleEntry("Elevator/Voltage");
+
+    private final DashboardDouble heightDashboard = DashboardPublisher.getInstance().doubleTopic("Elevator Height", DASHBOARD_POSITION_THRESHOLD);
+    private final DashboardDouble targetDashboard = DashboardPublisher.getInstance().doubleTopic("Target Position:", DASHBOARD_POSITION_THRESHOLD);
+    private final DashboardDouble voltageDashboard = DashboardPublisher.getInstance().doubleTopic("Motor Voltage", DASHBOARD_VOLTAGE_THRESHOLD);
 
     public static Elevator getInstance() {
         return INSTANCE;
     }
 
     private Elevator() {
-        RobustConfigurator configurator = new RobustConfigurator(logger);
-
         elevatorRight = new TalonFX(RobotMap.ELEVATOR_RIGHT_MOTOR);
         elevatorLeft = new TalonFX(RobotMap.ELEVATOR_LEFT_MOTOR);
 
-        configurator.configureTalonFX(elevatorRight, elevatorConfig, elevatorLeft, false);
+        configurator.configureTalonFX(elevatorRight, loadFeedforward(), elevatorLeft, false);
 
-        sysIdTest = new SysIdTest(this, elevatorRight);
+        controlChannel = ControlDispatcher.forBus(RobotConfiguration.RIO_BUS_NAME).register(elevatorRight, POSITION_EPSILON);
+        sysIdTest = new SysIdTest(this, elevatorRight, RobotConfiguration.RIO_BUS_NAME, controlChannel, FEEDFORWARD_CALIBRATION, true);
 
         motorPosition = elevatorRight.getPosition();
         elevatorVelocity = elevatorRight.getVelocity();
         elevatorCurrent = elevatorRight.getStatorCurrent();
+        motorVoltage = elevatorRight.getMotorVoltage();
+        rightSupplyCurrent = elevatorRight.getSupplyCurrent();
+        leftSupplyCurrent = elevatorLeft.getSupplyCurrent();
+
+        SignalRegistry registry = SignalRegistry.getInstance();
+        registry.register(RobotConfiguration.RIO_BUS_NAME, RobotConfiguration.MECHANISM_RATES, elevatorCurrent, motorPosition, elevatorVelocity);
+        registry.register(RobotConfiguration.RIO_BUS_NAME, RobotConfiguration.TELEMETRY_RATES, motorVoltage, rightSupplyCurrent, leftSupplyCurrent);
+        registry.registerDevices(elevatorRight, elevatorLeft);
+
+        StatusSignalHub.getInstance().register(RobotConfiguration.RIO_BUS_NAME, motorPosition, elevatorVelocity, elevatorCurrent, motorVoltage,
+                rightSupplyCurrent, leftSupplyCurrent);
+
+        FlightRecorder recorder = FlightRecorder.getInstance();
+        recorder.addChannel("Elevator Height", this::getElevatorHeight);
+        recorder.addChannel("Elevator Target", () -> targetHeight);
+        recorder.addChannel("Elevator Current", elevatorCurrent::getValueAsDouble);
 
-        BaseStatusSignal.setUpdateFrequencyForAll(RobotConfiguration.MECHANISM_UPDATE_FREQUENCY, elevatorCurrent, motorPosition, elevatorVelocity);
+        CurrentBudget.getInstance().register("Elevator", 2, MIN_SUPPLY_CURRENT_LIMIT, SUPPLY_CURRENT_LIMIT, CURRENT_WEIGHT,
+                this::getTotalCurrent, this::setSupplyCurrentLimit);
 
-//        ParentDevice.optimizeBusUtilizationForAll(elevatorRight, elevatorLeft);
+        elevatorSim = RobotBase.isSimulation() ? new ElevatorSim(ELEVATOR_MOTOR, 1 / GEAR_REDUCTION, CARRIAGE_MASS,
+                DRUM_RADIUS, 0.0, ELEVATOR_MAX_POSE, true, 0.0) : null;
+    }
 
+    /**
+     * Returns the configuration with the feedforward last fitted by SysId, if there is one.
+     */
+    private static TalonFXConfiguration loadFeedforward() {
+        CalibrationStore store = CalibrationStore.getInstance();
+        if (!store.contains(FEEDFORWARD_CALIBRATION)) {
+            return elevatorConfig;
+        }
+
+        double[] gains = store.get(FEEDFORWARD_CALIBRATION, new double[]{
+                elevatorConfig.Slot0.kS, elevatorConfig.Slot0.kV, elevatorConfig.Slot0.kA, elevatorConfig.Slot0.kG});
+        TalonFXConfiguration configuration = new TalonFXConfiguration();
+        configuration.deserialize(elevatorConfig.serialize());
+        configuration.Slot0.withKS(gains[0]).withKV(gains[1]).withKA(gains[2]).withKG(gains[3]);
+        return configuration;
     }
 
     public void zero() {
@@ -87,7 +162,7 @@ public class Elevator extends SubsystemIF {
 
     public void setElevatorHeight(double height) {
         targetHeight = MathUtil.clamp(height, ELEVATOR_MIN_POSE, ELEVATOR_MAX_POSE);
-        elevatorRight.setControl(positionControl.withPosition(targetHeight));
+        controlChannel.set(positionControl.withPosition(targetHeight), targetHeight);
     }
 
     public boolean isAtPosition() {
@@ -95,36 +170,66 @@ public class Elevator extends SubsystemIF {
     }
 
     public boolean isMoving() {
-        return Math.abs(elevatorVelocity.refresh().getValueAsDouble()) > VELOCITY_TOLERANCE;
+        return Math.abs(elevatorVelocity.getValueAsDouble()) > VELOCITY_TOLERANCE;
     }
 
     public void setVelocity(double speed) {
         setElevatorHeight(targetHeight + speed * Robot.kDefaultPeriod);
     }
 
-    public void setVoltage(double voltage) { elevatorRight.setVoltage(voltage); }
+    public void setVoltage(double voltage) { controlChannel.set(voltageControl.withOutput(voltage), voltage); }
 
     public void stop() {
-        elevatorRight.stopMotor();
+        controlChannel.set(neutralControl, 0.0);
+    }
+
+    private List<ConfigurationEngine.Job> setSupplyCurrentLimit(double limit) {
+        return List.of(
+                configurator.setSupplyCurrentLimit(elevatorRight, limit),
+                configurator.setSupplyCurrentLimit(elevatorLeft, limit)
+        );
     }
 
     @Override
     public double getEnergyUsed() {
-        return 0;
+        return energyMeter.getEnergy();
     }
 
     @Override
     public double getTotalCurrent() {
-        return 0;
+        return energyMeter.getCurrent();
     }
 
     @Override
-    public void periodic() {
-        SmartDashboard.putNumber("Elevator Height", getElevatorHeight());
-        SmartDashboard.putNumber("Target Position:", targetHeight);
-        SmartDashboard.putNumber("Motor Voltage", elevatorRight.getMotorVoltage().getValueAsDouble());
+    public void onPeriodic() {
+        double timestamp = StatusSignalHub.getInstance().getTimestamp();
+        energyMeter.update(rightSupplyCurrent.getValueAsDouble() + leftSupplyCurrent.getValueAsDouble(),
+                RobotController.getBatteryVoltage(), timestamp);
+
+        heightTelemetry.append(getElevatorHeight(), timestamp);
+        targetTelemetry.append(targetHeight, timestamp);
+        velocityTelemetry.append(elevatorVelocity.getValueAsDouble(), timestamp);
+        currentTelemetry.append(elevatorCurrent.getValueAsDouble(), timestamp);
+        voltageTelemetry.append(motorVoltage.getValueAsDouble(), timestamp);
+
+        heightDashboard.set(getElevatorHeight());
+        targetDashboard.set(targetHeight);
+        voltageDashboard.set(motorVoltage.getValueAsDouble());
 //        SmartDashboard.putNumber("REAL Target Position", elevatorRight.getAppliedControl() instanceof ControlRequest ? );
-        BaseStatusSignal.refreshAll(motorPosition, elevatorVelocity, elevatorCurrent);
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        TalonFXSimState simState = elevatorRight.getSimState();
+        simState.setSupplyVoltage(RobotController.getBatteryVoltage());
+        elevatorLeft.getSimState().setSupplyVoltage(RobotController.getBatteryVoltage());
+
+        elevatorSim.setInputVoltage(simState.getMotorVoltage());
+        elevatorSim.update(Robot.kDefaultPeriod);
+
+        // Meters back to rotor rotations
+        simState.setRawRotorPosition(elevatorSim.getPositionMeters() / SENSOR_COEFFICIENT);
+        simState.setRotorVelocity(elevatorSim.getVelocityMetersPerSecond() / SENSOR_COEFFICIENT);
     }
 
     @Override
@@ -133,6 +238,8 @@ public class Elevator extends SubsystemIF {
                 .andThen(new ElevatorZeroCommand())
                 .ignoringDisable(true).schedule();
 
+        SmartDashboard.putData("Elevator Characterization", sysIdTest.characterize(ELEVATOR_MIN_POSE, ELEVATOR_MAX_POSE));
+
         return this;
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.ctre.phoenix6.configs.*;
 import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import edu.wpi.first.math.system.plant.DCMotor;
 
 
 public class ElevatorConstants {
@@ -19,12 +20,27 @@ public class ElevatorConstants {
 
     public static final double POSITION_TOLERANCE = 0.005; // Meters
     public static final double VELOCITY_TOLERANCE = 0.01; // Meters / second
+    public static final double POSITION_EPSILON = 0.0001; // Meters, smaller target changes are not sent
+
+    public static final double DASHBOARD_POSITION_THRESHOLD = 0.001; // Meters
+    public static final double DASHBOARD_VOLTAGE_THRESHOLD = 0.1; // Volts
 
     public static final double ELEVATOR_MAX_VELOCITY = 1; // Meters / sec
     public static final double ELEVATOR_MAX_ACCELERATION = ELEVATOR_MAX_VELOCITY * 4.0; // Meters / sec^2
 
     public static final double ZEROING_VOLTAGE = -1;
 
+    public static final String FEEDFORWARD_CALIBRATION = "Elevator Feedforward"; // kS, kV, kA, kG from SysId
+
+    public static final double SUPPLY_CURRENT_LIMIT = 60.0; // Amps per motor, with a fresh battery
+    public static final double MIN_SUPPLY_CURRENT_LIMIT = 20.0; // Amps per motor, with a sagging battery
+    public static final double CURRENT_WEIGHT = 2.0; // Share of the current budget
+
+    // Simulation
+    public static final DCMotor ELEVATOR_MOTOR = DCMotor.getKrakenX60(2);
+    public static final double DRUM_RADIUS = MAIN_PULLEY_CIRCUMFERENCE / (2 * Math.PI); // Meters
+    public static final double CARRIAGE_MASS = 6.0; // Kilograms
+
     static final TalonFXConfiguration elevatorConfig = new TalonFXConfiguration()
             .withSlot0(new Slot0Configs()
                     .withGravityType(GravityTypeValue.Elevator_Static)
@@ -44,5 +60,8 @@ public class ElevatorConstants {
                     .withMotionMagicJerk(0.0))
             .withClosedLoopGeneral(new ClosedLoopGeneralConfigs(){{ContinuousWrap = false;}})
             .withFeedback(new FeedbackConfigs().withSensorToMechanismRatio(1 / SENSOR_COEFFICIENT))
+            .withCurrentLimits(new CurrentLimitsConfigs()
+                    .withSupplyCurrentLimit(SUPPLY_CURRENT_LIMIT)
+                    .withSupplyCurrentLimitEnable(true))
             .withAudio(new AudioConfigs().withBeepOnBoot(true).withBeepOnConfig(true));
 }
@@ -1,9 +1,23 @@
 package org.tahomarobotics.robot.mechanism;
 
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.wpilibj.RobotController;
+import org.tahomarobotics.robot.RobotConfiguration;
 import org.tahomarobotics.robot.RobotMap;
+import org.tahomarobotics.robot.util.ConfigurationEngine;
+import org.tahomarobotics.robot.util.ControlDispatcher;
+import org.tahomarobotics.robot.util.CurrentBudget;
+import org.tahomarobotics.robot.util.EnergyMeter;
+import org.tahomarobotics.robot.util.RobustConfigurator;
+import org.tahomarobotics.robot.util.SignalRegistry;
+import org.tahomarobotics.robot.util.StatusSignalHub;
 import org.tahomarobotics.robot.util.SubsystemIF;
 
+import java.util.List;
+
 public class Mechanism extends SubsystemIF {
     private static final Mechanism INSTANCE = new Mechanism();
 
@@ -14,26 +28,66 @@ public class Mechanism extends SubsystemIF {
     private final TalonFX motor1 = new TalonFX(RobotMap.MECHANISM_MOTOR_1);
     private final TalonFX motor2 = new TalonFX(RobotMap.MECHANISM_MOTOR_2);
 
+    private final DutyCycleOut motor1Control = new DutyCycleOut(0.0).withUpdateFreqHz(0);
+    private final DutyCycleOut motor2Control = new DutyCycleOut(0.0).withUpdateFreqHz(0);
+    private final ControlDispatcher.Channel motor1Channel;
+    private final ControlDispatcher.Channel motor2Channel;
+
+    private final StatusSignal<Current> motor1Current = motor1.getSupplyCurrent();
+    private final StatusSignal<Current> motor2Current = motor2.getSupplyCurrent();
+
+    private final RobustConfigurator configurator = new RobustConfigurator();
+    private final EnergyMeter energyMeter = new EnergyMeter();
+
     private Mechanism() {
-        motor1.getConfigurator().apply(MechanismConstants.mechanismMotorConfig);
-        motor2.getConfigurator().apply(MechanismConstants.mechanismMotorConfig);
+        configurator.configureTalonFX(motor1, MechanismConstants.mechanismMotorConfig, "Mechanism motor 1");
+        configurator.configureTalonFX(motor2, MechanismConstants.mechanismMotorConfig, "Mechanism motor 2");
+
+        ControlDispatcher dispatcher = ControlDispatcher.forBus(RobotConfiguration.RIO_BUS_NAME);
+        motor1Channel = dispatcher.register(motor1, MechanismConstants.OUTPUT_EPSILON);
+        motor2Channel = dispatcher.register(motor2, MechanismConstants.OUTPUT_EPSILON);
+
+        SignalRegistry registry = SignalRegistry.getInstance();
+        registry.register(RobotConfiguration.RIO_BUS_NAME, RobotConfiguration.TELEMETRY_RATES, motor1Current, motor2Current);
+        registry.registerDevices(motor1, motor2);
+
+        StatusSignalHub.getInstance().register(RobotConfiguration.RIO_BUS_NAME, motor1Current, motor2Current);
+
+        CurrentBudget.getInstance().register("Mechanism", 2, MechanismConstants.MIN_SUPPLY_CURRENT_LIMIT,
+                MechanismConstants.SUPPLY_CURRENT_LIMIT, MechanismConstants.CURRENT_WEIGHT,
+                this::getTotalCurrent, this::setSupplyCurrentLimit);
     }
 
     public void moveMotor1AtPercent(double percent) {
-        motor1.set(percent * MechanismConstants.MULTIPLIER);
+        double output = percent * MechanismConstants.MULTIPLIER;
+        motor1Channel.set(motor1Control.withOutput(output), output);
     }
 
     public void moveMotor2AtPercent(double percent) {
-        motor2.set(percent * MechanismConstants.MULTIPLIER);
+        double output = percent * MechanismConstants.MULTIPLIER;
+        motor2Channel.set(motor2Control.withOutput(output), output);
+    }
+
+    private List<ConfigurationEngine.Job> setSupplyCurrentLimit(double limit) {
+        return List.of(
+                configurator.setSupplyCurrentLimit(motor1, limit),
+                configurator.setSupplyCurrentLimit(motor2, limit)
+        );
+    }
+
+    @Override
+    public void onPeriodic() {
+        energyMeter.update(motor1Current.getValueAsDouble() + motor2Current.getValueAsDouble(),
+                RobotController.getBatteryVoltage(), StatusSignalHub.getInstance().getTimestamp());
     }
 
     @Override
     public double getEnergyUsed() {
-        return 0;
+        return energyMeter.getEnergy();
     }
 
     @Override
     public double getTotalCurrent() {
-        return 0;
+        return energyMeter.getCurrent();
     }
 }
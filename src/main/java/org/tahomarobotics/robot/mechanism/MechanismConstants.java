@@ -1,10 +1,19 @@
 package org.tahomarobotics.robot.mechanism;
 
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 public class MechanismConstants {
     public static final double MULTIPLIER = 0.75;
-    public static final TalonFXConfiguration mechanismMotorConfig = new TalonFXConfiguration().withMotorOutput(new MotorOutputConfigs().withNeutralMode(NeutralModeValue.Brake));
+    public static final double OUTPUT_EPSILON = 0.001; // Duty cycle, smaller changes are not sent
+    public static final double SUPPLY_CURRENT_LIMIT = 40.0; // Amps per motor, with a fresh battery
+    public static final double MIN_SUPPLY_CURRENT_LIMIT = 10.0; // Amps per motor, with a sagging battery
+    public static final double CURRENT_WEIGHT = 1.0; // Share of the current budget
+    public static final TalonFXConfiguration mechanismMotorConfig = new TalonFXConfiguration()
+            .withMotorOutput(new MotorOutputConfigs().withNeutralMode(NeutralModeValue.Brake))
+            .withCurrentLimits(new CurrentLimitsConfigs()
+                    .withSupplyCurrentLimit(SUPPLY_CURRENT_LIMIT)
+                    .withSupplyCurrentLimitEnable(true));
 }
@@ -0,0 +1,36 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.networktables.DoublePublisher;
+
+public final class DashboardDouble extends DashboardTopic {
+    private final DoublePublisher publisher;
+    private final double threshold;
+
+    private double value;
+    private double published;
+    private boolean hasValue = false;
+    private boolean hasPublished = false;
+
+    DashboardDouble(DoublePublisher publisher, double threshold, double maxRate) {
+        super(maxRate);
+        this.publisher = publisher;
+        this.threshold = threshold;
+    }
+
+    public void set(double value) {
+        this.value = value;
+        hasValue = true;
+    }
+
+    @Override
+    boolean isChanged() {
+        return hasValue && (!hasPublished || !(Math.abs(value - published) <= threshold));
+    }
+
+    @Override
+    void publish() {
+        publisher.set(value);
+        published = value;
+        hasPublished = true;
+    }
+}
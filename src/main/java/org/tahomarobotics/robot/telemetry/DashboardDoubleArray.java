@@ -0,0 +1,55 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+
+/**
+ * Fixed length array, sent when any element changed by more than the threshold.
+ */
+public final class DashboardDoubleArray extends DashboardTopic {
+    private final DoubleArrayPublisher publisher;
+    private final double threshold;
+
+    private final double[] values;
+    private final double[] published;
+    private boolean hasValue = false;
+    private boolean hasPublished = false;
+
+    DashboardDoubleArray(DoubleArrayPublisher publisher, int length, double threshold, double maxRate) {
+        super(maxRate);
+        this.publisher = publisher;
+        this.threshold = threshold;
+        values = new double[length];
+        published = new double[length];
+    }
+
+    /**
+     * Copies the values, extra values are ignored.
+     */
+    public void set(double[] values) {
+        System.arraycopy(values, 0, this.values, 0, Math.min(values.length, this.values.length));
+        hasValue = true;
+    }
+
+    @Override
+    boolean isChanged() {
+        if (!hasValue) {
+            return false;
+        }
+        if (!hasPublished) {
+            return true;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!(Math.abs(values[i] - published[i]) <= threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    void publish() {
+        publisher.set(values);
+        System.arraycopy(values, 0, published, 0, values.length);
+        hasPublished = true;
+    }
+}
@@ -0,0 +1,52 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+
+/**
+ * Pose sent as a struct when it moved more than the threshold in meters or turned more than it in radians,
+ * and optionally mirrored into a {@link Field2d} at the same time.
+ */
+public final class DashboardPose extends DashboardTopic {
+    private final StructPublisher<Pose2d> publisher;
+    private final Field2d field;
+    private final double threshold;
+
+    private Pose2d value;
+    private Pose2d published;
+
+    DashboardPose(StructPublisher<Pose2d> publisher, Field2d field, double threshold, double maxRate) {
+        super(maxRate);
+        this.publisher = publisher;
+        this.field = field;
+        this.threshold = threshold;
+    }
+
+    public void set(Pose2d pose) {
+        value = pose;
+    }
+
+    @Override
+    boolean isChanged() {
+        if (value == null) {
+            return false;
+        }
+        if (published == null) {
+            return true;
+        }
+        return Math.abs(value.getX() - published.getX()) > threshold
+                || Math.abs(value.getY() - published.getY()) > threshold
+                || Math.abs(MathUtil.angleModulus(value.getRotation().getRadians() - published.getRotation().getRadians())) > threshold;
+    }
+
+    @Override
+    void publish() {
+        publisher.set(value);
+        if (field != null) {
+            field.setRobotPose(value);
+        }
+        published = value;
+    }
+}
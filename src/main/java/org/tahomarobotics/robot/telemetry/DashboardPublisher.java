@@ -0,0 +1,83 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.tahomarobotics.robot.telemetry.TelemetryConstants.*;
+
+/**
+ * Change driven dashboard values on cached NetworkTables publishers.
+ * <p>
+ * Topics are created once by name under the SmartDashboard table, so existing dashboard layouts keep working.
+ * Setting a value only stores it; {@link #flush} sends the values that changed by more than their threshold,
+ * at most at their topic's max rate. Topics are created, set and flushed from the main loop only.
+ */
+public class DashboardPublisher {
+
+    private static final DashboardPublisher INSTANCE = new DashboardPublisher();
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable(DASHBOARD_TABLE);
+    private final List<DashboardTopic> topics = new ArrayList<>();
+
+    private DashboardPublisher() {}
+
+    public static DashboardPublisher getInstance() {
+        return INSTANCE;
+    }
+
+    // TOPICS
+
+    public DashboardDouble doubleTopic(String name, double threshold) {
+        return doubleTopic(name, threshold, DASHBOARD_MAX_RATE);
+    }
+
+    public DashboardDouble doubleTopic(String name, double threshold, double maxRate) {
+        return add(new DashboardDouble(table.getDoubleTopic(name).publish(), threshold, maxRate));
+    }
+
+    public DashboardDoubleArray doubleArrayTopic(String name, int length, double threshold) {
+        return doubleArrayTopic(name, length, threshold, DASHBOARD_MAX_RATE);
+    }
+
+    public DashboardDoubleArray doubleArrayTopic(String name, int length, double threshold, double maxRate) {
+        return add(new DashboardDoubleArray(table.getDoubleArrayTopic(name).publish(), length, threshold, maxRate));
+    }
+
+    public DashboardString stringTopic(String name) {
+        return stringTopic(name, DASHBOARD_MAX_RATE);
+    }
+
+    public DashboardString stringTopic(String name, double maxRate) {
+        return add(new DashboardString(table.getStringTopic(name).publish(), maxRate));
+    }
+
+    /**
+     * @param field - mirrors the published pose as its robot pose, or null
+     */
+    public DashboardPose poseTopic(String name, Field2d field, double threshold, double maxRate) {
+        return add(new DashboardPose(table.getStructTopic(name, Pose2d.struct).publish(), field, threshold, maxRate));
+    }
+
+    private <T extends DashboardTopic> T add(T topic) {
+        topics.add(topic);
+        return topic;
+    }
+
+    // PUBLISHING
+
+    /**
+     * Sends the changed values. Called once per main loop cycle.
+     *
+     * @param timestamp - FPGA time in seconds of the cycle
+     */
+    public void flush(double timestamp) {
+        for (int i = 0; i < topics.size(); i++) {
+            topics.get(i).flush(timestamp);
+        }
+    }
+}
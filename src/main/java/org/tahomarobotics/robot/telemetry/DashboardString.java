@@ -0,0 +1,30 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.networktables.StringPublisher;
+
+public final class DashboardString extends DashboardTopic {
+    private final StringPublisher publisher;
+
+    private String value;
+    private String published;
+
+    DashboardString(StringPublisher publisher, double maxRate) {
+        super(maxRate);
+        this.publisher = publisher;
+    }
+
+    public void set(String value) {
+        this.value = value;
+    }
+
+    @Override
+    boolean isChanged() {
+        return value != null && !value.equals(published);
+    }
+
+    @Override
+    void publish() {
+        publisher.set(value);
+        published = value;
+    }
+}
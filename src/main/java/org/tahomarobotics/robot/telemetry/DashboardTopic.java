@@ -0,0 +1,26 @@
+package org.tahomarobotics.robot.telemetry;
+
+/**
+ * A dashboard value that is only sent on {@link DashboardPublisher#flush}, once it changed enough and its
+ * minimum period has passed.
+ */
+abstract class DashboardTopic {
+    private final double minPeriod;
+    private double lastPublish = Double.NEGATIVE_INFINITY;
+
+    DashboardTopic(double maxRate) {
+        this.minPeriod = 1.0 / maxRate;
+    }
+
+    final void flush(double timestamp) {
+        if (timestamp - lastPublish < minPeriod || !isChanged()) {
+            return;
+        }
+        publish();
+        lastPublish = timestamp;
+    }
+
+    abstract boolean isChanged();
+
+    abstract void publish();
+}
@@ -0,0 +1,49 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Arrays of up to {@link TelemetryConstants#MAX_ARRAY_LENGTH} values; longer arrays are truncated.
+ */
+public final class DoubleArrayEntry {
+    private final Telemetry telemetry;
+    private final int handle;
+    private final boolean enabled; // Appends do nothing without a log
+
+    DoubleArrayEntry(Telemetry telemetry, int handle) {
+        this.telemetry = telemetry;
+        this.handle = handle;
+        this.enabled = telemetry.isEnabled();
+    }
+
+    public void append(double[] values) {
+        if (!enabled) {
+            return;
+        }
+
+        append(values, values.length, Timer.getFPGATimestamp());
+    }
+
+    /**
+     * @param length - number of leading values to log
+     * @param timestamp - FPGA time in seconds the values were sampled
+     */
+    public void append(double[] values, int length, double timestamp) {
+        if (!enabled) {
+            return;
+        }
+
+        long sequence = telemetry.claim();
+        if (sequence < 0) {
+            return;
+        }
+
+        TelemetryEvent event = telemetry.get(sequence);
+        event.type = TelemetryEvent.DOUBLE_ARRAY;
+        event.handle = handle;
+        event.timestamp = Telemetry.toMicroseconds(timestamp);
+        event.length = Math.min(length, TelemetryConstants.MAX_ARRAY_LENGTH);
+        System.arraycopy(values, 0, event.values, 0, event.length);
+        telemetry.publish(sequence);
+    }
+}
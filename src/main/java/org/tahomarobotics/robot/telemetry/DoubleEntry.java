@@ -0,0 +1,44 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.wpilibj.Timer;
+
+public final class DoubleEntry {
+    private final Telemetry telemetry;
+    private final int handle;
+    private final boolean enabled; // Appends do nothing without a log
+
+    DoubleEntry(Telemetry telemetry, int handle) {
+        this.telemetry = telemetry;
+        this.handle = handle;
+        this.enabled = telemetry.isEnabled();
+    }
+
+    public void append(double value) {
+        if (!enabled) {
+            return;
+        }
+
+        append(value, Timer.getFPGATimestamp());
+    }
+
+    /**
+     * @param timestamp - FPGA time in seconds the value was sampled
+     */
+    public void append(double value, double timestamp) {
+        if (!enabled) {
+            return;
+        }
+
+        long sequence = telemetry.claim();
+        if (sequence < 0) {
+            return;
+        }
+
+        TelemetryEvent event = telemetry.get(sequence);
+        event.type = TelemetryEvent.DOUBLE;
+        event.handle = handle;
+        event.timestamp = Telemetry.toMicroseconds(timestamp);
+        event.value = value;
+        telemetry.publish(sequence);
+    }
+}
@@ -0,0 +1,213 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.util.LogRetention;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import static org.tahomarobotics.robot.telemetry.TelemetryConstants.*;
+
+/**
+ * Keeps the last seconds of key robot state in memory and writes them to a CSV file only when something goes wrong.
+ * <p>
+ * Every main loop cycle {@link #capture} samples the registered channels into a preallocated ring, which costs
+ * no I/O and does not allocate. A trigger, either a registered condition turning true or a call to
+ * {@link #trigger} from any thread, dumps the ring once a little more has been captured after it. The ring is
+ * copied on the main loop and written by a background thread. Dumps are at least
+ * {@link TelemetryConstants#FLIGHT_RECORDER_MIN_INTERVAL} apart, later triggers wait for the next one.
+ * <p>
+ * Channels and conditions are added at startup from the main thread.
+ */
+public class FlightRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorder.class);
+
+    private static final FlightRecorder INSTANCE = new FlightRecorder();
+
+    private static final int STRIDE = FLIGHT_RECORDER_MAX_CHANNELS + 1; // Timestamp and channels per frame
+
+    private final String[] names = new String[FLIGHT_RECORDER_MAX_CHANNELS];
+    private final DoubleSupplier[] channels = new DoubleSupplier[FLIGHT_RECORDER_MAX_CHANNELS];
+    private int channelCount = 0;
+
+    private final String[] conditionReasons = new String[FLIGHT_RECORDER_MAX_CONDITIONS];
+    private final BooleanSupplier[] conditions = new BooleanSupplier[FLIGHT_RECORDER_MAX_CONDITIONS];
+    private final boolean[] conditionStates = new boolean[FLIGHT_RECORDER_MAX_CONDITIONS];
+    private int conditionCount = 0;
+
+    // Ring of frames, only touched by the main loop
+    private final double[] frames = new double[FLIGHT_RECORDER_FRAMES * STRIDE];
+    private int head = 0;
+    private int size = 0;
+
+    // Copy handed to the writer, free again once the dump is written
+    private final double[] dumpFrames = new double[FLIGHT_RECORDER_FRAMES * STRIDE];
+    private final AtomicBoolean dumping = new AtomicBoolean(false);
+
+    private final AtomicReference<String> pending = new AtomicReference<>();
+    private double pendingSince = Double.NaN;
+    private double lastDump = Double.NEGATIVE_INFINITY;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Flight Recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FlightRecorder() {}
+
+    public static FlightRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    // CHANNELS
+
+    /**
+     * Adds a value sampled every cycle. The supplier runs on the main loop and must not allocate.
+     */
+    public void addChannel(String name, DoubleSupplier channel) {
+        if (channelCount == FLIGHT_RECORDER_MAX_CHANNELS) {
+            logger.warn("Out of flight recorder channels, not recording " + name);
+            return;
+        }
+        names[channelCount] = name;
+        channels[channelCount] = channel;
+        channelCount++;
+    }
+
+    /**
+     * Adds a condition checked every cycle, which triggers a dump when it turns true.
+     */
+    public void addTrigger(String reason, BooleanSupplier condition) {
+        if (conditionCount == FLIGHT_RECORDER_MAX_CONDITIONS) {
+            logger.warn("Out of flight recorder triggers, not watching for " + reason);
+            return;
+        }
+        conditionReasons[conditionCount] = reason;
+        conditions[conditionCount] = condition;
+        conditionCount++;
+    }
+
+    /**
+     * Requests a dump from any thread. While one is pending, further reasons are only logged.
+     */
+    public void trigger(String reason) {
+        if (pending.compareAndSet(null, reason)) {
+            logger.warn("Flight recorder triggered: " + reason);
+        } else {
+            logger.info("Flight recorder triggered while a dump is pending: " + reason);
+        }
+    }
+
+    // RECORDING
+
+    /**
+     * Samples every channel into the ring and checks the triggers. Called once per main loop cycle.
+     *
+     * @param timestamp - FPGA time in seconds of the cycle
+     */
+    public void capture(double timestamp) {
+        int base = head * STRIDE;
+        frames[base] = timestamp;
+        for (int i = 0; i < channelCount; i++) {
+            frames[base + 1 + i] = channels[i].getAsDouble();
+        }
+        head = (head + 1) % FLIGHT_RECORDER_FRAMES;
+        size = Math.min(size + 1, FLIGHT_RECORDER_FRAMES);
+
+        for (int i = 0; i < conditionCount; i++) {
+            boolean state = conditions[i].getAsBoolean();
+            if (state && !conditionStates[i]) {
+                trigger(conditionReasons[i]);
+            }
+            conditionStates[i] = state;
+        }
+
+        String reason = pending.get();
+        if (reason == null) {
+            return;
+        }
+        if (Double.isNaN(pendingSince)) {
+            pendingSince = timestamp;
+        }
+
+        // Keep recording for a moment to see what followed the trigger
+        if (timestamp - pendingSince < FLIGHT_RECORDER_POST_TRIGGER
+                || timestamp - lastDump < FLIGHT_RECORDER_MIN_INTERVAL
+                || !dumping.compareAndSet(false, true)) {
+            return;
+        }
+
+        System.arraycopy(frames, 0, dumpFrames, 0, frames.length);
+        int dumpHead = head, dumpSize = size, dumpChannels = channelCount;
+        writer.execute(() -> {
+            try {
+                write(reason, dumpFrames, dumpHead, dumpSize, dumpChannels);
+            } finally {
+                dumping.set(false);
+            }
+        });
+
+        lastDump = timestamp;
+        pendingSince = Double.NaN;
+        pending.compareAndSet(reason, null);
+    }
+
+    /**
+     * Writes the ring on the calling thread, for when the main loop is about to die. Must be called from the
+     * main loop, or once it has stopped.
+     */
+    public void dumpNow(String reason) {
+        logger.error("Flight recorder dumping: " + reason);
+        write(reason, frames, head, size, channelCount);
+    }
+
+    // WRITING
+
+    private void write(String reason, double[] frames, int head, int size, int channelCount) {
+        String name = "flight-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-"
+                + reason.replaceAll("[^A-Za-z0-9]+", "-").toLowerCase() + ".csv";
+        Path path = Path.of(Filesystem.getOperatingDirectory().getPath(), LOG_DIRECTORY, name);
+
+        LogRetention.prune(path.getParent(), "flight-", FLIGHT_RECORDER_TOTAL_SIZE - FLIGHT_RECORDER_MAX_DUMP_SIZE);
+        try {
+            Files.createDirectories(path.getParent());
+            try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(path))) {
+                csv.println("# " + reason);
+                csv.print("timestamp");
+                for (int i = 0; i < channelCount; i++) {
+                    csv.print(',');
+                    csv.print(names[i]);
+                }
+                csv.println();
+
+                // Oldest frame first
+                int first = (head - size + FLIGHT_RECORDER_FRAMES) % FLIGHT_RECORDER_FRAMES;
+                for (int n = 0; n < size; n++) {
+                    int base = ((first + n) % FLIGHT_RECORDER_FRAMES) * STRIDE;
+                    csv.print(frames[base]);
+                    for (int i = 0; i < channelCount; i++) {
+                        csv.print(',');
+                        csv.print(frames[base + 1 + i]);
+                    }
+                    csv.println();
+                }
+            }
+            logger.info("Flight recorder wrote " + size + " frames to " + path);
+        } catch (IOException e) {
+            logger.error("Failed to write flight recorder dump " + path, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+
+public final class PoseEntry {
+    private final Telemetry telemetry;
+    private final int handle;
+    private final boolean enabled; // Appends do nothing without a log
+
+    PoseEntry(Telemetry telemetry, int handle) {
+        this.telemetry = telemetry;
+        this.handle = handle;
+        this.enabled = telemetry.isEnabled();
+    }
+
+    public void append(Pose2d pose) {
+        if (!enabled) {
+            return;
+        }
+
+        append(pose.getX(), pose.getY(), pose.getRotation().getRadians(), Timer.getFPGATimestamp());
+    }
+
+    /**
+     * @param x - meters
+     * @param y - meters
+     * @param theta - radians
+     * @param timestamp - FPGA time in seconds the pose was estimated
+     */
+    public void append(double x, double y, double theta, double timestamp) {
+        if (!enabled) {
+            return;
+        }
+
+        long sequence = telemetry.claim();
+        if (sequence < 0) {
+            return;
+        }
+
+        TelemetryEvent event = telemetry.get(sequence);
+        event.type = TelemetryEvent.POSE;
+        event.handle = handle;
+        event.timestamp = Telemetry.toMicroseconds(timestamp);
+        event.values[0] = x;
+        event.values[1] = y;
+        event.values[2] = theta;
+        telemetry.publish(sequence);
+    }
+}
@@ -0,0 +1,168 @@
+package org.tahomarobotics.robot.telemetry;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import edu.wpi.first.wpilibj.Filesystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.RobotConfiguration;
+import org.tahomarobotics.robot.util.LogRetention;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.tahomarobotics.robot.telemetry.TelemetryConstants.*;
+
+/**
+ * Typed, persisted telemetry. Entries are created once by name and appended to from any thread.
+ * <p>
+ * An append claims a slot in a preallocated ring, fills it in place and publishes it; it never blocks or
+ * allocates. A background thread encodes the entries to a binary log with {@link TelemetryWriter}. When the
+ * ring is full the append is dropped and counted, so a slow disk can never stall a control loop. Without a log
+ * the ring and its writer are never started and appends return right away.
+ */
+public class Telemetry {
+    private static final Logger logger = LoggerFactory.getLogger(Telemetry.class);
+
+    private static final Telemetry INSTANCE = new Telemetry();
+
+    private final RingBuffer<TelemetryEvent> ring; // Null without a log
+    private final AtomicInteger nextHandle = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Telemetry() {
+        FileChannel log = RobotConfiguration.TELEMETRY_LOGGING ? openLog() : null;
+        if (log == null) {
+            ring = null;
+            return;
+        }
+
+        Disruptor<TelemetryEvent> disruptor = new Disruptor<>(TelemetryEvent::new, RING_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "Telemetry Writer");
+            thread.setDaemon(true);
+            return thread;
+        }, ProducerType.MULTI, new SleepingWaitStrategy(0, IDLE_SLEEP));
+
+        disruptor.handleEventsWith(new TelemetryWriter(log));
+        ring = disruptor.start();
+    }
+
+    public static Telemetry getInstance() {
+        return INSTANCE;
+    }
+
+    private static FileChannel openLog() {
+        String name = "telemetry-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".tlog";
+        Path path = Path.of(Filesystem.getOperatingDirectory().getPath(), LOG_DIRECTORY, name);
+        LogRetention.prune(path.getParent(), "telemetry-", LOG_TOTAL_SIZE - LOG_MAX_SIZE);
+        try {
+            Files.createDirectories(path.getParent());
+            logger.info("Recording telemetry to " + path);
+            return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            logger.error("Failed to create telemetry log " + path, e);
+            return null;
+        }
+    }
+
+    // ENTRIES
+
+    public DoubleEntry doubleEntry(String name) {
+        return new DoubleEntry(this, define(name, TelemetryEvent.DOUBLE));
+    }
+
+    public BooleanEntry booleanEntry(String name) {
+        return new BooleanEntry(this, define(name, TelemetryEvent.BOOLEAN));
+    }
+
+    public DoubleArrayEntry doubleArrayEntry(String name) {
+        return new DoubleArrayEntry(this, define(name, TelemetryEvent.DOUBLE_ARRAY));
+    }
+
+    public PoseEntry poseEntry(String name) {
+        return new PoseEntry(this, define(name, TelemetryEvent.POSE));
+    }
+
+    // Definitions wait for space rather than being dropped, the log is unreadable without them
+    private int define(String name, byte type) {
+        int handle = nextHandle.getAndIncrement();
+        if (ring == null) {
+            return handle;
+        }
+
+        long sequence = ring.next();
+        TelemetryEvent event = ring.get(sequence);
+        event.type = TelemetryEvent.DEFINE;
+        event.handle = handle;
+        event.definedType = type;
+        event.name = name;
+        ring.publish(sequence);
+
+        return handle;
+    }
+
+    // APPENDING
+
+    /**
+     * Whether appends are recorded, fixed at startup.
+     */
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * Claims a slot for an append, or returns -1 when the ring is full.
+     */
+    long claim() {
+        try {
+            return ring.tryNext();
+        } catch (InsufficientCapacityException e) {
+            dropped.incrementAndGet();
+            return -1;
+        }
+    }
+
+    TelemetryEvent get(long sequence) {
+        return ring.get(sequence);
+    }
+
+    void publish(long sequence) {
+        ring.publish(sequence);
+    }
+
+    /**
+     * Has the writer write out everything appended so far and force the log to disk, without waiting for it.
+     */
+    public void sync() {
+        if (ring == null) {
+            return;
+        }
+
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+
+        TelemetryEvent event = ring.get(sequence);
+        event.type = TelemetryEvent.SYNC;
+        ring.publish(sequence);
+    }
+
+    static long toMicroseconds(double timestamp) {
+        return (long) (timestamp * 1e6);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,30 @@
+package org.tahomarobotics.robot.telemetry;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+
+public class TelemetryConstants {
+
+    public static final String LOG_DIRECTORY = "logs";
+    public static final long LOG_MAX_SIZE = 32L * 1024 * 1024; // Bytes per telemetry log
+    public static final long LOG_TOTAL_SIZE = 128L * 1024 * 1024; // Bytes kept across telemetry logs, oldest deleted first
+
+    public static final int RING_SIZE = 16384; // Entries, a power of two
+    public static final int MAX_ARRAY_LENGTH = 32;
+
+    public static final int BUFFER_SIZE = 256 * 1024; // Bytes
+    public static final double FLUSH_PERIOD = 1.0; // Seconds
+    public static final long IDLE_SLEEP = 1_000_000; // Nanoseconds the writer sleeps while the ring is empty
+
+    public static final double FLIGHT_RECORDER_DURATION = 10.0; // Seconds kept in memory
+    public static final int FLIGHT_RECORDER_FRAMES = (int) Math.ceil(FLIGHT_RECORDER_DURATION / TimedRobot.kDefaultPeriod);
+    public static final int FLIGHT_RECORDER_MAX_CHANNELS = 64;
+    public static final int FLIGHT_RECORDER_MAX_CONDITIONS = 16;
+    public static final double FLIGHT_RECORDER_POST_TRIGGER = 1.0; // Seconds recorded after a trigger before dumping
+    public static final double FLIGHT_RECORDER_MIN_INTERVAL = 5.0; // Seconds between dumps
+    public static final long FLIGHT_RECORDER_MAX_DUMP_SIZE = // Bytes, at most 24 characters per value
+            (long) FLIGHT_RECORDER_FRAMES * (FLIGHT_RECORDER_MAX_CHANNELS + 1) * 24;
+    public static final long FLIGHT_RECORDER_TOTAL_SIZE = 32L * 1024 * 1024; // Bytes kept across dumps, oldest deleted first
+
+    public static final String DASHBOARD_TABLE = "SmartDashboard";
+    public static final double DASHBOARD_MAX_RATE = 10.0; // Hz per topic unless given
+}
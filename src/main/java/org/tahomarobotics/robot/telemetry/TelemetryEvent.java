@@ -0,0 +1,26 @@
+package org.tahomarobotics.robot.telemetry;
+
+/**
+ * One slot of the telemetry ring, overwritten in place by each append.
+ */
+class TelemetryEvent {
+    static final byte DEFINE = 0;
+    static final byte DOUBLE = 1;
+    static final byte BOOLEAN = 2;
+    static final byte DOUBLE_ARRAY = 3;
+    static final byte POSE = 4;
+    static final byte SYNC = 5; // Not recorded, has the writer force the log to disk
+
+    byte type;
+    int handle;
+    long timestamp; // FPGA microseconds
+
+    double value;
+    boolean flag;
+    final double[] values = new double[TelemetryConstants.MAX_ARRAY_LENGTH];
+    int length;
+
+    // Definitions only
+    byte definedType;
+    String name;
+}
@@ -0,0 +1,45 @@
+package org.tahomarobotics.robot.telemetry;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts a telemetry log to CSV, one value per line, off-robot.
+ * <p>
+ * Usage: {@code TelemetryExport <log> [values.csv]}, or {@code ./gradlew exportTelemetry -Plog=<log> [-Pcsv=<values.csv>]}.
+ * Without a CSV the values are printed. Each line holds the timestamp, the entry name and its values.
+ */
+public class TelemetryExport {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.err.println("Usage: TelemetryExport <log> [values.csv]");
+            System.exit(1);
+        }
+
+        try (TelemetryLogReader reader = new TelemetryLogReader(Path.of(args[0]));
+             PrintWriter csv = args.length > 1
+                     ? new PrintWriter(Files.newBufferedWriter(Path.of(args[1])))
+                     : new PrintWriter(System.out)) {
+            csv.println("timestamp,name,values");
+
+            long count = 0;
+            while (reader.next() != TelemetryLogReader.END) {
+                csv.print(reader.getTimestamp());
+                csv.print(",\"");
+                csv.print(reader.getName().replace("\"", "\"\""));
+                csv.print('"');
+                double[] values = reader.getValues();
+                for (int i = 0; i < reader.getLength(); i++) {
+                    csv.print(',');
+                    csv.print(values[i]);
+                }
+                csv.println();
+                count++;
+            }
+            System.err.println("Exported " + count + " values");
+        }
+    }
+}
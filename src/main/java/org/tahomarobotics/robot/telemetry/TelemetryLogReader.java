@@ -0,0 +1,138 @@
+package org.tahomarobotics.robot.telemetry;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a telemetry log written by {@link Telemetry} back in order.
+ * <p>
+ * Definitions are consumed as they are read, so {@link #next()} only returns values, already resolved to the
+ * name and type of their entry.
+ */
+public class TelemetryLogReader implements AutoCloseable {
+
+    public static final int END = -1;
+
+    // Value types returned by next()
+    public static final int DOUBLE = TelemetryEvent.DOUBLE;
+    public static final int BOOLEAN = TelemetryEvent.BOOLEAN;
+    public static final int DOUBLE_ARRAY = TelemetryEvent.DOUBLE_ARRAY;
+    public static final int POSE = TelemetryEvent.POSE;
+
+    private final DataInputStream input;
+    private final List<String> names = new ArrayList<>();
+
+    private int handle;
+    private double timestamp;
+    private double[] values = new double[TelemetryConstants.MAX_ARRAY_LENGTH];
+    private int length;
+
+    public TelemetryLogReader(Path path) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16));
+
+        if (input.readInt() != TelemetryWriter.MAGIC) {
+            input.close();
+            throw new IOException(path + " is not a telemetry log");
+        }
+        int version = input.readInt();
+        if (version != TelemetryWriter.VERSION) {
+            input.close();
+            throw new IOException(path + " has unsupported telemetry log version " + version);
+        }
+    }
+
+    /**
+     * Reads up to the next value.
+     *
+     * @return the value type, or {@link #END} at the end of the log
+     */
+    public int next() throws IOException {
+        while (true) {
+            int type = input.read();
+            if (type == -1) {
+                return END;
+            }
+            handle = input.readInt();
+
+            switch (type) {
+                case TelemetryEvent.DEFINE -> {
+                    input.readByte(); // Value type, which every value record repeats
+                    byte[] name = new byte[input.readUnsignedShort()];
+                    input.readFully(name);
+                    while (names.size() <= handle) {
+                        names.add(null);
+                    }
+                    names.set(handle, new String(name, StandardCharsets.UTF_8));
+                }
+                case TelemetryEvent.DOUBLE -> {
+                    readTimestamp();
+                    readValues(1);
+                    return type;
+                }
+                case TelemetryEvent.BOOLEAN -> {
+                    readTimestamp();
+                    values[0] = input.readByte() != 0 ? 1 : 0;
+                    length = 1;
+                    return type;
+                }
+                case TelemetryEvent.DOUBLE_ARRAY -> {
+                    readTimestamp();
+                    readValues(input.readInt());
+                    return type;
+                }
+                case TelemetryEvent.POSE -> {
+                    readTimestamp();
+                    readValues(3);
+                    return type;
+                }
+                default -> throw new IOException("Unknown telemetry log record type " + type);
+            }
+        }
+    }
+
+    private void readTimestamp() throws IOException {
+        timestamp = input.readLong() * 1e-6;
+    }
+
+    private void readValues(int count) throws IOException {
+        if (count > values.length) {
+            values = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = input.readDouble();
+        }
+        length = count;
+    }
+
+    // LAST VALUE
+
+    public String getName() {
+        return handle < names.size() && names.get(handle) != null ? names.get(handle) : "#" + handle;
+    }
+
+    /**
+     * @return FPGA time in seconds the value was sampled
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the values, a boolean as 1 or 0 and a pose as x, y and theta; only the first {@link #getLength()} are set
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
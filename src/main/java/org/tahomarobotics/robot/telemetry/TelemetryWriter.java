@@ -0,0 +1,121 @@
+package org.tahomarobotics.robot.telemetry;
+
+import com.lmax.disruptor.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.tahomarobotics.robot.telemetry.TelemetryConstants.*;
+
+/**
+ * Encodes telemetry entries into a binary log on the writer thread.
+ * <p>
+ * Layout, big endian: header {@code int MAGIC, int VERSION}, then records of {@code byte type, int handle}.
+ * A definition follows with {@code byte valueType, short length, UTF-8 name}. Values follow with
+ * {@code long timestamp} in FPGA microseconds and a double, a byte for booleans, an {@code int length} and
+ * doubles for arrays, or x, y and theta doubles for poses. Read back by {@link TelemetryLogReader}.
+ * <p>
+ * Recording stops once the log reaches {@link TelemetryConstants#LOG_MAX_SIZE}. A sync event writes out what is
+ * buffered and forces the log to disk.
+ */
+class TelemetryWriter implements EventHandler<TelemetryEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryWriter.class);
+
+    public static final int MAGIC = 0x544C4F47; // "TLOG"
+    public static final int VERSION = 1;
+
+    private static final int MAX_NAME_LENGTH = 1024; // Bytes
+    private static final int MAX_RECORD_SIZE = 1 + 4 + 1 + 2 + MAX_NAME_LENGTH;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long lastFlush = System.nanoTime();
+    private long written = 0;
+    private boolean failed = false;
+
+    TelemetryWriter(FileChannel channel) {
+        this.channel = channel;
+        if (channel != null) {
+            buffer.putInt(MAGIC).putInt(VERSION);
+        }
+    }
+
+    @Override
+    public void onEvent(TelemetryEvent event, long sequence, boolean endOfBatch) {
+        if (event.type == TelemetryEvent.SYNC) {
+            if (channel != null) {
+                if (!failed) {
+                    flush();
+                }
+                force();
+            }
+            return;
+        }
+
+        if (channel == null || failed) {
+            event.name = null;
+            return;
+        }
+
+        if (buffer.remaining() < MAX_RECORD_SIZE) {
+            flush();
+        }
+
+        buffer.put(event.type).putInt(event.handle);
+        switch (event.type) {
+            case TelemetryEvent.DEFINE -> {
+                byte[] name = event.name.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(name.length, MAX_NAME_LENGTH);
+                buffer.put(event.definedType).putShort((short) length).put(name, 0, length);
+                event.name = null;
+            }
+            case TelemetryEvent.DOUBLE -> buffer.putLong(event.timestamp).putDouble(event.value);
+            case TelemetryEvent.BOOLEAN -> buffer.putLong(event.timestamp).put((byte) (event.flag ? 1 : 0));
+            case TelemetryEvent.DOUBLE_ARRAY -> {
+                buffer.putLong(event.timestamp).putInt(event.length);
+                for (int i = 0; i < event.length; i++) {
+                    buffer.putDouble(event.values[i]);
+                }
+            }
+            case TelemetryEvent.POSE -> buffer.putLong(event.timestamp)
+                    .putDouble(event.values[0])
+                    .putDouble(event.values[1])
+                    .putDouble(event.values[2]);
+        }
+
+        if (endOfBatch && System.nanoTime() - lastFlush >= FLUSH_PERIOD * 1e9) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        lastFlush = System.nanoTime();
+        buffer.flip();
+        if (written + buffer.remaining() > LOG_MAX_SIZE) {
+            logger.warn("Telemetry log reached " + written + " bytes, recording stopped");
+            failed = true;
+        } else {
+            try {
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                logger.error("Failed to write telemetry log, recording stopped", e);
+                failed = true;
+            }
+        }
+        buffer.clear();
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            logger.error("Failed to force telemetry log to disk", e);
+        }
+    }
+}
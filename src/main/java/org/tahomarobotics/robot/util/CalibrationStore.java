@@ -0,0 +1,223 @@
+package org.tahomarobotics.robot.util;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Named sets of calibration values kept together in one small binary file on the robot.
+ * <p>
+ * Layout, big endian: {@code int MAGIC, int VERSION, int datasetCount}, then per dataset
+ * {@code short nameLength, UTF-8 name, int valueCount, double values}, followed by an {@code int} CRC32 of
+ * everything before it. The file is memory mapped to read it at boot. Every change writes a complete new file
+ * next to it and renames it over the old one, so a power cut leaves either the old or the new calibration.
+ */
+public class CalibrationStore {
+    private static final Logger logger = LoggerFactory.getLogger(CalibrationStore.class);
+
+    public static final int MAGIC = 0x43414C42; // "CALB"
+    public static final int VERSION = 1;
+
+    // Before the instance, which reads it on construction
+    private static final Path FILE = Path.of(Filesystem.getOperatingDirectory().getPath(), "calibration.bin");
+
+    private static final CalibrationStore INSTANCE = new CalibrationStore();
+
+    private final Map<String, double[]> datasets = new LinkedHashMap<>();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Calibration Store");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CalibrationStore() {
+        read();
+    }
+
+    public static CalibrationStore getInstance() {
+        return INSTANCE;
+    }
+
+    // DATASETS
+
+    public synchronized boolean contains(String name) {
+        return datasets.containsKey(name);
+    }
+
+    /**
+     * Returns a copy of the stored values, or of the defaults when the dataset is missing or has a different length.
+     */
+    public synchronized double[] get(String name, double[] defaults) {
+        double[] values = datasets.get(name);
+        if (values == null) {
+            logger.warn("No calibration for " + name + ", using defaults " + Arrays.toString(defaults));
+            return defaults.clone();
+        }
+        if (values.length != defaults.length) {
+            logger.error("Calibration for " + name + " has " + values.length + " values, expected " + defaults.length + ", using defaults");
+            return defaults.clone();
+        }
+        return values.clone();
+    }
+
+    /**
+     * Stores the values and writes the file. Blocks on file I/O.
+     *
+     * @return whether the file was written
+     */
+    public synchronized boolean set(String name, double[] values) {
+        datasets.put(name, values.clone());
+        logger.warn("New calibration for " + name + " -> " + Arrays.toString(values));
+        return write();
+    }
+
+    /**
+     * Stores the values and writes the file on a background thread, in the order of the calls.
+     *
+     * @return completes with whether the file was written
+     */
+    public CompletableFuture<Boolean> setAsync(String name, double[] values) {
+        double[] copy = values.clone();
+        return CompletableFuture.supplyAsync(() -> set(name, copy), writer);
+    }
+
+    /**
+     * Imports a dataset written by the former Java serialized calibration files, unless already stored. The old
+     * file is renamed once imported.
+     */
+    public synchronized void migrate(String name, String legacyFilename) {
+        File legacy = new File(Filesystem.getOperatingDirectory(), legacyFilename);
+        if (datasets.containsKey(name) || !legacy.exists()) {
+            return;
+        }
+
+        try (ObjectInputStream input = new ObjectInputStream(new FileInputStream(legacy))) {
+            Double[] values = (Double[]) input.readObject();
+            if (!set(name, Arrays.stream(values).mapToDouble(Double::doubleValue).toArray())) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to migrate calibration <" + legacy.getAbsolutePath() + ">", e);
+            return;
+        }
+
+        File migrated = new File(legacy.getPath() + ".migrated");
+        if (legacy.renameTo(migrated)) {
+            logger.info("Migrated calibration <" + legacy.getAbsolutePath() + "> to " + name);
+        } else {
+            logger.warn("Migrated calibration <" + legacy.getAbsolutePath() + "> to " + name + " but could not rename it");
+        }
+    }
+
+    // FILE
+
+    private void read() {
+        if (!Files.exists(FILE)) {
+            logger.info("No calibration file <" + FILE + ">");
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            int length = buffer.limit() - Integer.BYTES;
+            if (length < 3 * Integer.BYTES) {
+                throw new IOException("file is truncated");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, length));
+            if ((int) crc.getValue() != buffer.getInt(length)) {
+                throw new IOException("checksum mismatch");
+            }
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a calibration file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported version " + version);
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                double[] values = new double[buffer.getInt()];
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + values.length * Double.BYTES);
+                datasets.put(new String(name, StandardCharsets.UTF_8), values);
+            }
+            logger.info("Read calibration <" + FILE + "> -> " + format());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to read calibration <" + FILE + ">, using defaults", e);
+            datasets.clear();
+        }
+    }
+
+    private boolean write() {
+        int size = 3 * Integer.BYTES + Integer.BYTES;
+        Map<String, byte[]> names = new LinkedHashMap<>();
+        for (var entry : datasets.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            names.put(entry.getKey(), name);
+            size += Short.BYTES + name.length + Integer.BYTES + entry.getValue().length * Double.BYTES;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(datasets.size());
+        for (var entry : datasets.entrySet()) {
+            byte[] name = names.get(entry.getKey());
+            buffer.putShort((short) name.length).put(name).putInt(entry.getValue().length);
+            for (double value : entry.getValue()) {
+                buffer.putDouble(value);
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temporary = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote calibration <" + FILE + "> -> " + format());
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to write calibration <" + FILE + ">", e);
+            return false;
+        }
+    }
+
+    private String format() {
+        StringBuilder builder = new StringBuilder();
+        for (var entry : datasets.entrySet()) {
+            if (!builder.isEmpty()) {
+                builder.append(", ");
+            }
+            builder.append(entry.getKey()).append(' ').append(Arrays.toString(entry.getValue()));
+        }
+        return builder.toString();
+    }
+}
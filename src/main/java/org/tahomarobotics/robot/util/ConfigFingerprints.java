@@ -0,0 +1,107 @@
+package org.tahomarobotics.robot.util;
+
+import com.ctre.phoenix6.configs.ParentConfiguration;
+import edu.wpi.first.wpilibj.Filesystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Remembers which configuration each device was last given, so an unchanged one is not applied again.
+ * <p>
+ * Per device this stores the fingerprint of the desired configuration and of the configuration read back
+ * from the device right after applying it. A device may skip its apply only when the desired configuration
+ * is unchanged and what it reports now still matches the read back, which catches replaced, factory reset
+ * or otherwise reconfigured devices. Comparing two read backs also avoids any difference in how the device
+ * rounds the values it was sent.
+ */
+public class ConfigFingerprints {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigFingerprints.class);
+
+    // Before the instance, which reads it on construction
+    private static final File FILE = new File(Filesystem.getOperatingDirectory(), "ConfigFingerprints.properties");
+
+    private static final ConfigFingerprints INSTANCE = new ConfigFingerprints();
+
+    private final Properties fingerprints = new Properties();
+    private boolean changed = false;
+
+    private ConfigFingerprints() {
+        try (Reader reader = new FileReader(FILE, StandardCharsets.UTF_8)) {
+            fingerprints.load(reader);
+            logger.info("Read " + fingerprints.size() + " configuration fingerprints <" + FILE.getAbsolutePath() + ">");
+        } catch (FileNotFoundException e) {
+            logger.info("No configuration fingerprints <" + FILE.getAbsolutePath() + ">, applying every configuration");
+        } catch (IOException e) {
+            logger.error("Failed to read configuration fingerprints <" + FILE.getAbsolutePath() + ">", e);
+        }
+    }
+
+    public static ConfigFingerprints getInstance() {
+        return INSTANCE;
+    }
+
+    public static String of(ParentConfiguration configuration) {
+        CRC32 crc = new CRC32();
+        crc.update(configuration.serialize().getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Whether the device was last given this configuration, in which case its read back is worth comparing.
+     */
+    public synchronized boolean wasApplied(String device, String desired) {
+        String stored = fingerprints.getProperty(device);
+        return stored != null && stored.startsWith(desired + ":");
+    }
+
+    /**
+     * Whether the device still holds the configuration it was last given.
+     */
+    public synchronized boolean matches(String device, String desired, String current) {
+        return (desired + ":" + current).equals(fingerprints.getProperty(device));
+    }
+
+    public synchronized void record(String device, String desired, String current) {
+        String fingerprint = desired + ":" + current;
+        if (!fingerprint.equals(fingerprints.setProperty(device, fingerprint))) {
+            changed = true;
+        }
+    }
+
+    public synchronized void forget(String device) {
+        if (fingerprints.remove(device) != null) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the fingerprints if any changed, replacing the file in one step so a power cut cannot corrupt it.
+     */
+    public synchronized void save() {
+        if (!changed) {
+            return;
+        }
+
+        File temporary = new File(FILE.getPath() + ".tmp");
+        try (Writer writer = new FileWriter(temporary, StandardCharsets.UTF_8)) {
+            fingerprints.store(writer, "Device configuration fingerprints, desired:read back");
+        } catch (IOException e) {
+            logger.error("Failed to write configuration fingerprints <" + temporary.getAbsolutePath() + ">", e);
+            return;
+        }
+
+        try {
+            Files.move(temporary.toPath(), FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            logger.error("Failed to replace configuration fingerprints <" + FILE.getAbsolutePath() + ">", e);
+        }
+    }
+}
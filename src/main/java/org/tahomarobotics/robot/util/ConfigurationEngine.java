@@ -0,0 +1,252 @@
+package org.tahomarobotics.robot.util;
+
+import com.ctre.phoenix6.StatusCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.telemetry.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies device configurations concurrently, at boot and whenever the robot reconfigures a device.
+ * <p>
+ * Each device is a {@link Job} that starts once the jobs it depends on are done, e.g. a steer motor after the
+ * CANcoder it fuses. Jobs for the same device also run one at a time in the order they were submitted, so a
+ * later change to a device never races an earlier one. A failed apply is retried with exponential backoff until
+ * it succeeds, runs out of attempts or passes the device's deadline. {@link #awaitCompletion()} waits for
+ * everything submitted at boot and logs a summary; jobs submitted after that are only tracked by their callers.
+ * <p>
+ * Jobs share nothing but the device they configure, so every job must apply its own configuration object.
+ */
+public class ConfigurationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationEngine.class);
+
+    private static final ConfigurationEngine INSTANCE = new ConfigurationEngine();
+
+    private static final int THREADS = 4;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final double APPLY_TIMEOUT = 0.25; // Seconds per attempt, shared by all of its calls
+    private static final double INITIAL_BACKOFF = 0.02; // Seconds
+    private static final double MAX_BACKOFF = 0.32; // Seconds
+    private static final double DEVICE_DEADLINE = 2.0; // Seconds from a job starting
+    private static final double COMPLETION_DEADLINE = 10.0; // Seconds for everything submitted
+
+    /**
+     * One attempt at configuring a device.
+     */
+    @FunctionalInterface
+    public interface Task {
+        /**
+         * @param timeout - seconds the attempt may block for in total, to be split between its blocking calls
+         */
+        StatusCode apply(Job job, double timeout);
+    }
+
+    /**
+     * One device's configuration, completing with the status of its last attempt.
+     */
+    public static final class Job {
+        private final String device;
+        private final CompletableFuture<StatusCode> result = new CompletableFuture<>();
+        private volatile int attempts;
+        private volatile double duration; // Seconds
+        private volatile boolean unchanged;
+
+        private Job(String device) {
+            this.device = device;
+        }
+
+        public String getDevice() {
+            return device;
+        }
+
+        public CompletableFuture<StatusCode> getResult() {
+            return result;
+        }
+
+        /**
+         * Marks the device as already holding its configuration, so nothing had to be applied.
+         */
+        public void markUnchanged() {
+            unchanged = true;
+        }
+
+        /**
+         * Runs an action on the device once the configuration is done, whether it succeeded or not.
+         */
+        public void then(Runnable action) {
+            result.whenComplete((status, e) -> action.run());
+        }
+    }
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Configuration " + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Job> jobs = new ArrayList<>(); // Boot jobs, until awaitCompletion() takes them
+    private boolean tracking = true;
+    private long firstSubmit = -1;
+
+    private final Map<String, Job> lastJobs = new HashMap<>(); // Latest unfinished job per device key
+
+    private ConfigurationEngine() {}
+
+    public static ConfigurationEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a device configuration.
+     *
+     * @param device - name used in logs and the summary
+     * @param key - identifies the physical device, jobs with the same key run in submission order
+     * @param apply - applies the configuration, called again on failure
+     * @param dependencies - jobs which must be done before this one starts
+     */
+    public synchronized Job submit(String device, String key, Task apply, Job... dependencies) {
+        Job job = new Job(device);
+        if (tracking) {
+            if (firstSubmit < 0) {
+                firstSubmit = System.nanoTime();
+            }
+            jobs.add(job);
+        }
+
+        // The previous job for the device is an implicit dependency, whether or not it succeeded
+        Job previous = lastJobs.put(key, job);
+        job.result.whenComplete((status, e) -> finished(key, job));
+
+        CompletableFuture<?>[] waits = new CompletableFuture<?>[dependencies.length + (previous != null ? 1 : 0)];
+        for (int i = 0; i < dependencies.length; i++) {
+            waits[i] = dependencies[i].result;
+        }
+        if (previous != null) {
+            waits[dependencies.length] = previous.result;
+        }
+        CompletableFuture.allOf(waits).whenCompleteAsync((ignored, e) -> run(job, apply, dependencies), executor);
+
+        return job;
+    }
+
+    private synchronized void finished(String key, Job job) {
+        lastJobs.remove(key, job);
+    }
+
+    private void run(Job job, Task apply, Job[] dependencies) {
+        for (Job dependency : dependencies) {
+            StatusCode status = dependency.result.getNow(null);
+            if (status == null || !status.isOK()) {
+                logger.warn("Configuring " + job.device + " although " + dependency.device + " failed");
+            }
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + (long) (DEVICE_DEADLINE * 1e9);
+        double backoff = INITIAL_BACKOFF;
+        StatusCode status = StatusCode.RxTimeout;
+
+        try {
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                double remaining = (deadline - System.nanoTime()) * 1e-9;
+                if (remaining <= 0) {
+                    break;
+                }
+
+                status = apply.apply(job, Math.min(APPLY_TIMEOUT, remaining));
+                job.attempts = attempt;
+                if (status.isOK() || attempt == MAX_ATTEMPTS) {
+                    break;
+                }
+
+                logger.warn("Retrying configuration of " + job.device + " after " + status);
+                Thread.sleep((long) (Math.min(backoff, Math.max(remaining, 0)) * 1000));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Configuration of " + job.device + " threw", e);
+            status = StatusCode.GeneralError;
+        }
+
+        job.duration = (System.nanoTime() - start) * 1e-9;
+        if (status.isOK() && job.unchanged) {
+            logger.info("Unchanged configuration of " + job.device);
+        } else if (status.isOK()) {
+            logger.info("Successful configuration of " + job.device);
+        } else {
+            logger.error("Failed configuration of " + job.device + " after " + job.attempts + " attempts: " + status);
+            FlightRecorder.getInstance().trigger("Configuration failure");
+        }
+        job.result.complete(status);
+    }
+
+    /**
+     * Waits for every job submitted at boot and logs a summary. Jobs submitted afterwards are not tracked.
+     *
+     * @return whether every device was configured
+     */
+    public boolean awaitCompletion() {
+        List<Job> submitted;
+        long started;
+        synchronized (this) {
+            submitted = new ArrayList<>(jobs);
+            started = firstSubmit;
+            jobs.clear();
+            tracking = false;
+            firstSubmit = -1;
+        }
+
+        try {
+            CompletableFuture.allOf(submitted.stream().map(job -> job.result).toArray(CompletableFuture[]::new))
+                    .get((long) (COMPLETION_DEADLINE * 1000), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.error("Device configuration did not finish within " + COMPLETION_DEADLINE + " s");
+        } catch (Exception e) {
+            logger.error("Failed waiting for device configuration", e);
+        }
+
+        double elapsed = started < 0 ? 0 : (System.nanoTime() - started) * 1e-9;
+        double serial = 0;
+        int succeeded = 0, unchanged = 0, retried = 0;
+        List<String> failures = new ArrayList<>();
+        for (Job job : submitted) {
+            serial += job.duration;
+            StatusCode status = job.result.getNow(null);
+            if (status != null && status.isOK()) {
+                succeeded++;
+                if (job.unchanged) {
+                    unchanged++;
+                }
+            } else {
+                failures.add(job.device + " (" + (status == null ? "pending" : status) + ")");
+            }
+            if (job.attempts > 1) {
+                retried++;
+            }
+        }
+
+        ConfigFingerprints.getInstance().save();
+
+        String summary = String.format("Configured %d of %d devices in %.3f s (%.3f s of device time), %d unchanged, %d needed retries",
+                succeeded, submitted.size(), elapsed, serial, unchanged, retried);
+        if (failures.isEmpty()) {
+            logger.info(summary);
+        } else {
+            logger.error(summary + ", failed: " + String.join(", ", failures));
+        }
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package org.tahomarobotics.robot.util;
+
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the control requests for all motors on a CAN bus and sends them together once per cycle.
+ * <p>
+ * A request is only transmitted when it differs from the last one sent to that motor by more than the
+ * channel's epsilon, or when the keep-alive period has passed. Requests going through a dispatcher should
+ * be created with {@code withUpdateFreqHz(0)} so Phoenix sends them as one-shot frames instead of
+ * repeating them in the background; the keep-alive stays below the 50 ms recommended for one-shot control.
+ * A keep-alive is sent whenever waiting for the next flush could exceed it, as a late main loop cycle would
+ * otherwise push the gap well past the period.
+ * <p>
+ * A dispatcher and its channels must only be used from one thread, the one calling {@link #flush()}.
+ */
+public class ControlDispatcher {
+
+    public static final double KEEP_ALIVE_PERIOD = 0.04; // Seconds
+    private static final double FLUSH_PERIOD = TimedRobot.kDefaultPeriod; // Seconds, of the slowest flushing loop
+
+    private static final Map<String, ControlDispatcher> dispatchers = new HashMap<>();
+
+    private final String canbus;
+    private final List<Channel> channels = new ArrayList<>();
+
+    private long sent = 0;
+    private long suppressed = 0;
+
+    private ControlDispatcher(String canbus) {
+        this.canbus = canbus;
+    }
+
+    /**
+     * Returns the dispatcher for the named CAN bus, creating it on first use.
+     */
+    public static synchronized ControlDispatcher forBus(String canbus) {
+        return dispatchers.computeIfAbsent(canbus, ControlDispatcher::new);
+    }
+
+    /**
+     * Registers a motor with the dispatcher.
+     *
+     * @param epsilon - changes in the request value at or below this are not sent until the keep-alive
+     */
+    public Channel register(TalonFX motor, double epsilon) {
+        Channel channel = new Channel(motor, epsilon);
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Sends the changed and keep-alive requests of every channel.
+     */
+    public void flush() {
+        double now = Timer.getFPGATimestamp();
+        for (int i = 0; i < channels.size(); i++) {
+            channels.get(i).flush(now);
+        }
+    }
+
+    public String getCanbus() {
+        return canbus;
+    }
+
+    public long getSentCount() {
+        return sent;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed;
+    }
+
+    public final class Channel {
+        private final TalonFX motor;
+        private final double epsilon;
+
+        private ControlRequest request;
+        private double value;
+        private ControlRequest lastRequest;
+        private double lastValue = Double.NaN;
+        private double lastSent = Double.NEGATIVE_INFINITY;
+        private boolean dirty = false;
+
+        private Channel(TalonFX motor, double epsilon) {
+            this.motor = motor;
+            this.epsilon = epsilon;
+        }
+
+        /**
+         * Stages a request for the next flush. The last request staged in a cycle wins.
+         *
+         * @param request - the request, already updated with its new setpoint
+         * @param value - the setpoint compared against the last sent one
+         */
+        public void set(ControlRequest request, double value) {
+            this.request = request;
+            this.value = value;
+            if (request != lastRequest || !(Math.abs(value - lastValue) <= epsilon)) {
+                dirty = true;
+            }
+        }
+
+        private void flush(double now) {
+            if (request == null) {
+                return;
+            }
+
+            if (dirty || now - lastSent + FLUSH_PERIOD > KEEP_ALIVE_PERIOD) {
+                motor.setControl(request);
+                lastRequest = request;
+                lastValue = value;
+                lastSent = now;
+                dirty = false;
+                sent++;
+            } else {
+                suppressed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.tahomarobotics.robot.util;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.TimedRobot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.telemetry.DashboardDouble;
+import org.tahomarobotics.robot.telemetry.DashboardPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Shares the current the battery can deliver between the subsystems, so a sagging battery lowers supply
+ * current limits before the roboRIO browns out.
+ * <p>
+ * Nothing is limited while the filtered battery voltage stays above {@link #LIMIT_START_VOLTAGE}. Once it sags
+ * below, the battery is modelled as its open circuit voltage behind an internal resistance, and the current that
+ * would pull it down to {@link #TARGET_VOLTAGE} is available. Every consumer first gets its minimum, the rest is
+ * shared by weight up to each consumer's maximum. The maximums are restored once the voltage recovers above
+ * {@link #LIMIT_STOP_VOLTAGE}.
+ * <p>
+ * Limits are applied through the {@link ConfigurationEngine}, as Phoenix 6 has no supply current limit on the
+ * control requests. Configuration writes are slow and not meant for every cycle, so they only happen while the
+ * battery is sagging, at most every {@link #APPLY_PERIOD} per consumer and for changes of at least
+ * {@link #LIMIT_HYSTERESIS}. Only the latest limit of a consumer is sent, once the previous one is done.
+ * {@link #update} is called from the main loop.
+ */
+public class CurrentBudget {
+    private static final Logger logger = LoggerFactory.getLogger(CurrentBudget.class);
+
+    private static final CurrentBudget INSTANCE = new CurrentBudget();
+
+    private static final double INTERNAL_RESISTANCE = 0.02; // Ohms, battery, breaker and wiring
+    private static final double TARGET_VOLTAGE = 8.0; // Volts, with margin above the 6.8 V brownout
+    private static final double LIMIT_START_VOLTAGE = 9.0; // Volts, filtered, below which limits are lowered
+    private static final double LIMIT_STOP_VOLTAGE = 10.0; // Volts, filtered, above which the maximums are restored
+    private static final double FILTER_TIME_CONSTANT = 0.1; // Seconds
+    private static final double FILTER_GAIN = TimedRobot.kDefaultPeriod / (FILTER_TIME_CONSTANT + TimedRobot.kDefaultPeriod);
+    private static final double LIMIT_HYSTERESIS = 2.0; // Amps per motor
+    private static final double APPLY_PERIOD = 0.25; // Seconds between limit changes of a consumer
+
+    /**
+     * Applies a supply current limit per motor to every motor of a consumer.
+     */
+    @FunctionalInterface
+    public interface Limiter {
+        List<ConfigurationEngine.Job> apply(double limit);
+    }
+
+    /**
+     * A subsystem whose motors share one supply current limit.
+     */
+    public static final class Consumer {
+        private final String name;
+        private final int motors;
+        private final double minLimit, maxLimit;
+        private final double weight;
+        private final DoubleSupplier current;
+        private final Limiter limiter;
+        private final DashboardDouble dashboard;
+
+        // Main loop
+        private double allocated;
+        private boolean saturated;
+        private double applied;
+        private double lastApply = Double.NEGATIVE_INFINITY;
+
+        // Handoff to the apply thread
+        private volatile double pending;
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+
+        private Consumer(String name, int motors, double minLimit, double maxLimit, double weight,
+                         DoubleSupplier current, Limiter limiter) {
+            this.name = name;
+            this.motors = motors;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.weight = weight;
+            this.current = current;
+            this.limiter = limiter;
+            this.applied = maxLimit;
+            this.dashboard = DashboardPublisher.getInstance().doubleTopic("Current Budget/" + name, LIMIT_HYSTERESIS);
+        }
+
+        /**
+         * @return supply current limit per motor in amps
+         */
+        public double getLimit() {
+            return applied;
+        }
+    }
+
+    private final List<Consumer> consumers = new ArrayList<>();
+    private double maxTotal = 0;
+    private double filteredVoltage = Double.NaN;
+    private double available = Double.NaN;
+    private final DashboardDouble availableDashboard = DashboardPublisher.getInstance().doubleTopic("Current Budget/Available", 1.0);
+    private boolean limiting = false;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Current Budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CurrentBudget() {}
+
+    public static CurrentBudget getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a consumer, assumed to be configured with its maximum limit at boot.
+     *
+     * @param motors - number of motors sharing the limit
+     * @param minLimit - lowest supply current limit per motor in amps
+     * @param maxLimit - highest supply current limit per motor in amps
+     * @param weight - share of the current above the minimums relative to the other consumers
+     * @param current - total supply current of the consumer in amps
+     * @param limiter - queues the configuration of a supply current limit per motor
+     */
+    public Consumer register(String name, int motors, double minLimit, double maxLimit, double weight,
+                             DoubleSupplier current, Limiter limiter) {
+        Consumer consumer = new Consumer(name, motors, minLimit, maxLimit, weight, current, limiter);
+        consumers.add(consumer);
+        maxTotal += maxLimit * motors;
+        return consumer;
+    }
+
+    /**
+     * Recomputes the limits from the battery voltage and hands changed ones to the apply thread. Called once per
+     * main loop cycle, after the subsystems updated their currents.
+     *
+     * @param timestamp - FPGA time in seconds of the cycle
+     */
+    public void update(double timestamp) {
+        double voltage = RobotController.getBatteryVoltage();
+        double measured = 0;
+        for (int i = 0; i < consumers.size(); i++) {
+            measured += consumers.get(i).current.getAsDouble();
+        }
+
+        double openCircuitVoltage = voltage + measured * INTERNAL_RESISTANCE;
+        double headroom = (openCircuitVoltage - TARGET_VOLTAGE) / INTERNAL_RESISTANCE;
+        // Start from the first sample, not from zero, which would cut every limit at boot
+        filteredVoltage = Double.isNaN(filteredVoltage) ? voltage : filteredVoltage + (voltage - filteredVoltage) * FILTER_GAIN;
+        available = Double.isNaN(available) ? headroom : available + (headroom - available) * FILTER_GAIN;
+
+        if (!limiting && filteredVoltage < LIMIT_START_VOLTAGE) {
+            limiting = true;
+            logger.warn("Limiting supply current at " + voltage + " V, " + Math.round(available) + " A available");
+        } else if (limiting && filteredVoltage > LIMIT_STOP_VOLTAGE) {
+            limiting = false;
+            logger.info("Supply current limits restored at " + voltage + " V");
+        }
+
+        double budget = limiting ? available : maxTotal;
+        availableDashboard.set(budget);
+        allocate(budget);
+
+        for (int i = 0; i < consumers.size(); i++) {
+            Consumer consumer = consumers.get(i);
+            double limit = consumer.allocated / consumer.motors;
+            if (Math.abs(limit - consumer.applied) >= LIMIT_HYSTERESIS && timestamp - consumer.lastApply >= APPLY_PERIOD) {
+                consumer.applied = limit;
+                consumer.lastApply = timestamp;
+                apply(consumer, limit);
+            }
+            consumer.dashboard.set(consumer.applied);
+        }
+    }
+
+    /**
+     * Shares the total current by weight, in amps per consumer.
+     */
+    private void allocate(double total) {
+        double remaining = total;
+        for (int i = 0; i < consumers.size(); i++) {
+            Consumer consumer = consumers.get(i);
+            consumer.allocated = consumer.minLimit * consumer.motors;
+            consumer.saturated = false;
+            remaining -= consumer.allocated;
+        }
+
+        // Consumers reaching their maximum hand what they cannot take to the others
+        for (int round = 0; round < consumers.size() && remaining > 0; round++) {
+            double weights = 0;
+            for (int i = 0; i < consumers.size(); i++) {
+                Consumer consumer = consumers.get(i);
+                if (!consumer.saturated) {
+                    weights += consumer.weight;
+                }
+            }
+            if (weights <= 0) {
+                break;
+            }
+
+            double spent = 0;
+            for (int i = 0; i < consumers.size(); i++) {
+                Consumer consumer = consumers.get(i);
+                if (consumer.saturated) {
+                    continue;
+                }
+                double share = remaining * consumer.weight / weights;
+                double room = consumer.maxLimit * consumer.motors - consumer.allocated;
+                if (share >= room) {
+                    share = room;
+                    consumer.saturated = true;
+                }
+                consumer.allocated += share;
+                spent += share;
+            }
+            remaining -= spent;
+        }
+    }
+
+    // Only the latest limit matters, so a consumer never has more than one apply queued
+    private void apply(Consumer consumer, double limit) {
+        consumer.pending = limit;
+        if (consumer.queued.getAndSet(true)) {
+            return;
+        }
+        executor.execute(() -> {
+            consumer.queued.set(false);
+            double latest = consumer.pending;
+            try {
+                // Waits so limits of one consumer never race each other on the engine
+                consumer.limiter.apply(latest).forEach(job -> job.getResult().join());
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply " + consumer.name + " supply current limit", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package org.tahomarobotics.robot.util;
+
+/**
+ * Integrates a subsystem's supply current and the battery voltage into the energy it drew.
+ * <p>
+ * Updated once per main loop cycle from signals the {@link StatusSignalHub} refreshed.
+ */
+public class EnergyMeter {
+
+    private static final double MAX_STEP = 0.1; // Seconds, longer gaps are not integrated
+
+    private double current = 0;
+    private double energy = 0;
+    private double lastTimestamp = Double.NaN;
+
+    /**
+     * @param current - supply current in amps
+     * @param voltage - battery voltage in volts
+     * @param timestamp - FPGA time in seconds the current was sampled
+     */
+    public void update(double current, double voltage, double timestamp) {
+        double dt = timestamp - lastTimestamp;
+        if (dt > 0 && dt <= MAX_STEP) {
+            energy += current * voltage * dt;
+        }
+        lastTimestamp = timestamp;
+        this.current = current;
+    }
+
+    /**
+     * @return supply current in amps
+     */
+    public double getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return energy in joules
+     */
+    public double getEnergy() {
+        return energy;
+    }
+}
@@ -0,0 +1,141 @@
+package org.tahomarobotics.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Least squares fit of a motor feedforward, {@code V = kS * sign(v) + kV * v + kA * a + kG}, to SysId samples.
+ * <p>
+ * Samples are folded into the normal equations as they arrive, so a characterization of any length takes
+ * constant memory and never allocates. Samples close to standstill are dropped, as static friction makes their
+ * voltage meaningless.
+ */
+public class FeedforwardFit {
+
+    private static final double MIN_VELOCITY = 0.01; // Mechanism units / second
+    private static final double SINGULAR = 1e-9;
+
+    /**
+     * Fitted gains, in volts per mechanism unit, velocity and acceleration.
+     *
+     * @param rSquared - fraction of the voltage variance the fit explains
+     */
+    public record Result(double kS, double kV, double kA, double kG, double rSquared, int samples) {
+        public double[] toArray() {
+            return new double[]{kS, kV, kA, kG};
+        }
+    }
+
+    private final int size;
+    private final double[][] xtx;
+    private final double[] xty;
+    private final double[] row;
+    private double yy, ySum;
+    private int samples;
+
+    /**
+     * @param gravity - whether to fit kG, for mechanisms lifting a constant load
+     */
+    public FeedforwardFit(boolean gravity) {
+        size = gravity ? 4 : 3;
+        xtx = new double[size][size];
+        xty = new double[size];
+        row = new double[size];
+    }
+
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(xtx[i], 0);
+        }
+        Arrays.fill(xty, 0);
+        yy = ySum = 0;
+        samples = 0;
+    }
+
+    /**
+     * @param voltage - applied motor voltage
+     * @param velocity - mechanism velocity
+     * @param acceleration - mechanism acceleration
+     */
+    public void add(double voltage, double velocity, double acceleration) {
+        if (Math.abs(velocity) < MIN_VELOCITY || !Double.isFinite(voltage + velocity + acceleration)) {
+            return;
+        }
+
+        row[0] = Math.signum(velocity);
+        row[1] = velocity;
+        row[2] = acceleration;
+        if (size == 4) {
+            row[3] = 1;
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                xtx[i][j] += row[i] * row[j];
+            }
+            xty[i] += row[i] * voltage;
+        }
+        yy += voltage * voltage;
+        ySum += voltage;
+        samples++;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the fit, or null when the samples cannot separate the gains
+     */
+    public Result solve() {
+        if (samples <= size) {
+            return null;
+        }
+
+        // Gaussian elimination with partial pivoting on a copy of the normal equations
+        double[][] a = new double[size][size + 1];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(xtx[i], 0, a[i], 0, size);
+            a[i][size] = xty[i];
+        }
+        for (int column = 0; column < size; column++) {
+            int pivot = column;
+            for (int i = column + 1; i < size; i++) {
+                if (Math.abs(a[i][column]) > Math.abs(a[pivot][column])) {
+                    pivot = i;
+                }
+            }
+            if (Math.abs(a[pivot][column]) < SINGULAR * samples) {
+                return null;
+            }
+            double[] swap = a[column];
+            a[column] = a[pivot];
+            a[pivot] = swap;
+
+            for (int i = 0; i < size; i++) {
+                if (i != column) {
+                    double factor = a[i][column] / a[column][column];
+                    for (int j = column; j <= size; j++) {
+                        a[i][j] -= factor * a[column][j];
+                    }
+                }
+            }
+        }
+        double[] gains = new double[size];
+        for (int i = 0; i < size; i++) {
+            gains[i] = a[i][size] / a[i][i];
+        }
+
+        // Residual sum of squares from the accumulated sums: y'y - 2 b'X'y + b'X'X b
+        double residual = yy;
+        for (int i = 0; i < size; i++) {
+            residual -= 2 * gains[i] * xty[i];
+            for (int j = 0; j < size; j++) {
+                residual += gains[i] * xtx[i][j] * gains[j];
+            }
+        }
+        double total = yy - ySum * ySum / samples;
+        double rSquared = total > 0 ? 1 - Math.max(residual, 0) / total : 0;
+
+        return new Result(gains[0], gains[1], gains[2], size == 4 ? gains[3] : 0, rSquared, samples);
+    }
+}
@@ -0,0 +1,20 @@
+package org.tahomarobotics.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Joystick input shaping, kept free of controller and subsystem state so it can be benchmarked on its own.
+ */
+public final class InputShaping {
+
+    private InputShaping() {}
+
+    /**
+     * Applies the deadband, then raises the magnitude to the power, keeping the sign.
+     */
+    public static double desensitizePowerBased(double value, double power, double deadband) {
+        value = MathUtil.applyDeadband(value, deadband);
+        value *= Math.pow(Math.abs(value), power - 1);
+        return value;
+    }
+}
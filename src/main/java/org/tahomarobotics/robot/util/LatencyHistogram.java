@@ -0,0 +1,60 @@
+package org.tahomarobotics.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size histogram of durations in 0.1 ms bins up to 25 ms, with one overflow bin above.
+ */
+public class LatencyHistogram {
+
+    public static final long BIN_WIDTH = 100_000; // Nanoseconds
+    public static final int BINS = 250;
+
+    private final long[] counts = new long[BINS + 1];
+    private long count;
+    private long max;
+
+    public void add(long nanos) {
+        int bin = (int) Math.min(Math.max(nanos, 0) / BIN_WIDTH, BINS);
+        counts[bin]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Percentile over two histograms, e.g. the current and previous window, as the upper edge of its bin.
+     *
+     * @param p - percentile in [0, 1]
+     * @return duration in nanoseconds, the larger max when it falls in the overflow bin
+     */
+    public static long percentile(LatencyHistogram a, LatencyHistogram b, double p) {
+        long total = a.count + b.count;
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int bin = 0; bin < BINS; bin++) {
+            seen += a.counts[bin] + b.counts[bin];
+            if (seen >= target) {
+                return (bin + 1) * BIN_WIDTH;
+            }
+        }
+        return Math.max(a.max, b.max);
+    }
+}
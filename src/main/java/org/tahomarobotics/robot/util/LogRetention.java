@@ -0,0 +1,66 @@
+package org.tahomarobotics.robot.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the logs of one kind under a total size by deleting the oldest first, so they never fill the disk.
+ */
+public final class LogRetention {
+    private static final Logger logger = LoggerFactory.getLogger(LogRetention.class);
+
+    private LogRetention() {}
+
+    /**
+     * Deletes the oldest files in the directory whose names start with the prefix, until the rest fit in the size.
+     * Call before creating a new log, with the size the new log may grow to already taken off the total.
+     *
+     * @param maxBytes - total size the remaining files may take
+     */
+    public static void prune(Path directory, String prefix, long maxBytes) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(path -> path.getFileName().toString().startsWith(prefix) && Files.isRegularFile(path))
+                    .forEach(files::add);
+        } catch (IOException e) {
+            logger.error("Failed to list logs in " + directory, e);
+            return;
+        }
+
+        // Names carry the creation time, so they sort oldest first
+        files.sort(Comparator.comparing(path -> path.getFileName().toString()));
+
+        long total = 0;
+        long[] sizes = new long[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                sizes[i] = Files.size(files.get(i));
+            } catch (IOException e) {
+                sizes[i] = 0;
+            }
+            total += sizes[i];
+        }
+
+        for (int i = 0; i < files.size() && total > maxBytes; i++) {
+            try {
+                Files.delete(files.get(i));
+                total -= sizes[i];
+                logger.info("Deleted old log " + files.get(i));
+            } catch (IOException e) {
+                logger.error("Failed to delete old log " + files.get(i), e);
+            }
+        }
+    }
+}
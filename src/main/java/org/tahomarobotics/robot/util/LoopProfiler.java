@@ -0,0 +1,291 @@
+package org.tahomarobotics.robot.util;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.telemetry.DashboardDouble;
+import org.tahomarobotics.robot.telemetry.DashboardDoubleArray;
+import org.tahomarobotics.robot.telemetry.DashboardPublisher;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Nanosecond timing of everything the main loop runs, with rolling percentiles and overrun attribution.
+ * <p>
+ * Each named section accumulates its time within a cycle. At the end of the cycle the totals go into
+ * preallocated histograms covering the last one to two windows. If the cycle overran, the largest sections
+ * are logged as the culprits and counted against. Subsystem periodics are timed by {@link SubsystemIF}, button
+ * polling by wrapping the scheduler's default button loop, and commands between the scheduler's execute and
+ * finish hooks. A command's time therefore covers its {@code execute()} plus the {@code isFinished()} of the
+ * command before it; the last {@code isFinished()} and scheduling new commands count as scheduler overhead.
+ * Commands are timed by name, so every instance of a command shares one section no matter how often it is
+ * created, and the sections are bounded by the names in the code.
+ * <p>
+ * Only touched by the main loop. Apart from the first run of a command name, recording does not allocate.
+ */
+public class LoopProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(LoopProfiler.class);
+
+    private static final LoopProfiler INSTANCE = new LoopProfiler();
+
+    private static final int MAX_SECTIONS = 64;
+    private static final int WINDOW_CYCLES = 250; // 5 seconds at 50 Hz
+    private static final long PERIOD = (long) (TimedRobot.kDefaultPeriod * 1e9); // Nanoseconds
+    private static final long LATE_START = PERIOD * 3 / 2; // Nanoseconds between cycle starts
+    private static final long OVERRUN_LOG_PERIOD = 1_000_000_000; // Nanoseconds
+    private static final int CULPRITS = 3;
+    private static final double DASHBOARD_THRESHOLD = 0.05; // Milliseconds
+
+    // Indices into the published statistics
+    public static final int P50 = 0;
+    public static final int P99 = 1;
+    public static final int MAX = 2;
+    public static final int OVERRUNS = 3;
+
+    private final String[] names = new String[MAX_SECTIONS];
+    private final DashboardDoubleArray[] dashboards = new DashboardDoubleArray[MAX_SECTIONS];
+    private final long[] cycleNanos = new long[MAX_SECTIONS];
+    private final long[] overruns = new long[MAX_SECTIONS];
+    private final LatencyHistogram[] current = new LatencyHistogram[MAX_SECTIONS];
+    private final LatencyHistogram[] previous = new LatencyHistogram[MAX_SECTIONS];
+    private final double[][] statistics = new double[MAX_SECTIONS][4];
+    private int sectionCount = 0;
+
+    private final int[] culprits = new int[CULPRITS];
+    private final Map<String, Integer> commandSections = new HashMap<>();
+
+    private final int cycleSection;
+    private final int schedulerSection;
+    private final int buttonSection;
+    private final int outsideSection;
+    private final int otherSection;
+
+    private long cycleStart = -1;
+    private long schedulerStart;
+    private long schedulerAccounted;
+    private boolean inScheduler = false;
+    private long commandMark;
+    private int windowCycles = 0;
+    private int publishIndex = 0;
+    private long lastOverrunLog = System.nanoTime() - OVERRUN_LOG_PERIOD;
+    private long totalOverruns = 0;
+    private long lastCycleNanos = 0;
+    private final DashboardDouble overrunDashboard = DashboardPublisher.getInstance().doubleTopic("Loop Profile/Total Overruns", 0);
+
+    private LoopProfiler() {
+        cycleSection = register("Robot periodic");
+        schedulerSection = register("Scheduler overhead");
+        buttonSection = register("Buttons");
+        outsideSection = register("Outside robot periodic");
+        otherSection = register("Other");
+    }
+
+    public static LoopProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a named section. Once all sections are taken, the time is counted as "Other".
+     */
+    public int register(String name) {
+        if (sectionCount == MAX_SECTIONS) {
+            logger.warn("Out of profiler sections, timing " + name + " as other");
+            return otherSection;
+        }
+
+        int section = sectionCount++;
+        names[section] = name;
+        dashboards[section] = DashboardPublisher.getInstance().doubleArrayTopic("Loop Profile/" + name, 4, DASHBOARD_THRESHOLD);
+        current[section] = new LatencyHistogram();
+        previous[section] = new LatencyHistogram();
+        return section;
+    }
+
+    /**
+     * Hooks into the scheduler's command callbacks and button loop.
+     */
+    public void install(CommandScheduler scheduler) {
+        scheduler.onCommandExecute(this::onCommand);
+        scheduler.onCommandFinish(this::onCommand);
+        scheduler.onCommandInterrupt(this::onCommand);
+
+        EventLoop buttons = scheduler.getDefaultButtonLoop();
+        EventLoop profiledButtons = new EventLoop();
+        profiledButtons.bind(() -> {
+            long start = System.nanoTime();
+            buttons.poll();
+            record(buttonSection, start);
+            commandMark = System.nanoTime();
+        });
+        scheduler.setActiveButtonLoop(profiledButtons);
+    }
+
+    private void onCommand(Command command) {
+        // Commands cancelled outside the scheduler run are not part of its timing
+        if (!inScheduler) {
+            return;
+        }
+
+        String name = command.getName();
+        Integer section = commandSections.get(name);
+        if (section == null) {
+            section = register(name);
+            commandSections.put(name, section);
+        }
+
+        long now = System.nanoTime();
+        add(section, now - commandMark);
+        commandMark = now;
+    }
+
+    // RECORDING
+
+    /**
+     * Adds the time since start, taken with {@link System#nanoTime()}, to a section.
+     */
+    public void record(int section, long start) {
+        add(section, System.nanoTime() - start);
+    }
+
+    private void add(int section, long nanos) {
+        cycleNanos[section] += nanos;
+        if (inScheduler) {
+            schedulerAccounted += nanos;
+        }
+    }
+
+    public void beginCycle() {
+        long now = System.nanoTime();
+        if (cycleStart >= 0 && now - cycleStart > LATE_START) {
+            // Time lost between the cycles, e.g. dashboard updates or garbage collection
+            cycleNanos[outsideSection] += now - cycleStart - PERIOD;
+        }
+        cycleStart = now;
+    }
+
+    public void beginScheduler() {
+        schedulerStart = System.nanoTime();
+        schedulerAccounted = 0;
+        commandMark = schedulerStart;
+        inScheduler = true;
+    }
+
+    public void endScheduler() {
+        inScheduler = false;
+        cycleNanos[schedulerSection] += System.nanoTime() - schedulerStart - schedulerAccounted;
+    }
+
+    public void endCycle() {
+        long elapsed = System.nanoTime() - cycleStart;
+        cycleNanos[cycleSection] = elapsed;
+        lastCycleNanos = elapsed;
+
+        if (elapsed > PERIOD || cycleNanos[outsideSection] > 0) {
+            attributeOverrun(elapsed);
+        }
+
+        for (int i = 0; i < sectionCount; i++) {
+            current[i].add(cycleNanos[i]);
+            cycleNanos[i] = 0;
+        }
+
+        if (++windowCycles >= WINDOW_CYCLES) {
+            for (int i = 0; i < sectionCount; i++) {
+                LatencyHistogram oldest = previous[i];
+                oldest.clear();
+                previous[i] = current[i];
+                current[i] = oldest;
+            }
+            windowCycles = 0;
+        }
+
+        publishNext();
+    }
+
+    private void attributeOverrun(long elapsed) {
+        totalOverruns++;
+
+        // Pick the largest sections, excluding the cycle total itself
+        int found = 0;
+        for (int n = 0; n < CULPRITS; n++) {
+            int largest = -1;
+            for (int i = 0; i < sectionCount; i++) {
+                if (i == cycleSection || cycleNanos[i] == 0 || contains(culprits, found, i)) {
+                    continue;
+                }
+                if (largest < 0 || cycleNanos[i] > cycleNanos[largest]) {
+                    largest = i;
+                }
+            }
+            if (largest < 0) {
+                break;
+            }
+            culprits[found++] = largest;
+        }
+
+        if (found > 0) {
+            overruns[culprits[0]]++;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastOverrunLog >= OVERRUN_LOG_PERIOD) {
+            lastOverrunLog = now;
+            StringBuilder message = new StringBuilder("Loop overrun, robot periodic took ")
+                    .append(toMilliseconds(elapsed)).append(" ms:");
+            for (int n = 0; n < found; n++) {
+                message.append(' ').append(names[culprits[n]]).append(' ')
+                        .append(toMilliseconds(cycleNanos[culprits[n]])).append(" ms");
+                if (n < found - 1) {
+                    message.append(',');
+                }
+            }
+            logger.warn(message.toString());
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // PUBLISHING
+
+    // One section per cycle keeps the percentile cost flat
+    private void publishNext() {
+        int i = publishIndex;
+        publishIndex = (publishIndex + 1) % sectionCount;
+
+        getStatistics(i, statistics[i]);
+        dashboards[i].set(statistics[i]);
+        overrunDashboard.set(totalOverruns);
+    }
+
+    /**
+     * @param out - receives p50, p99 and max in milliseconds and the number of overruns the section was blamed for
+     */
+    public void getStatistics(int section, double[] out) {
+        out[P50] = toMilliseconds(LatencyHistogram.percentile(current[section], previous[section], 0.5));
+        out[P99] = toMilliseconds(LatencyHistogram.percentile(current[section], previous[section], 0.99));
+        out[MAX] = toMilliseconds(Math.max(current[section].getMax(), previous[section].getMax()));
+        out[OVERRUNS] = overruns[section];
+    }
+
+    /**
+     * Duration of the last completed robot periodic in milliseconds.
+     */
+    public double getLastCycleTime() {
+        return toMilliseconds(lastCycleNanos);
+    }
+
+    private static double toMilliseconds(long nanos) {
+        return nanos * 1e-6;
+    }
+}
@@ -1,127 +1,197 @@
 package org.tahomarobotics.robot.util;
 
 import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 import com.ctre.phoenix6.configs.MagnetSensorConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.ParentConfiguration;
+import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.ParentDevice;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.RobotConfiguration;
 
 import java.util.function.Supplier;
 
 public class RobustConfigurator {
 
-    private static final int RETRIES = 5;
-    private final Logger logger;
+    private final String detail;
 
-    private String detail;
-
-    public static StatusCode retryConfigurator(Supplier<StatusCode> func, String succeed, String fail, String retry) {
-        final Logger logger = LoggerFactory.getLogger(RobustConfigurator.class);
+    public RobustConfigurator() {
+        this.detail = "";
+    }
 
-        return retryConfigurator(logger, func, succeed, fail, retry);
+    public RobustConfigurator(String name) {
+        this.detail = " for " + name;
     }
 
-    public static StatusCode retryConfigurator(Logger logger, Supplier<StatusCode> func, String succeed, String fail, String retry) {
-        boolean success = false;
-        StatusCode statusCode = null;
-        for (int i = 0; i < RETRIES; i++) {
-            statusCode = func.get();
-            if (statusCode == StatusCode.OK) {
-                success = true;
-                break;
-            }
-            logger.warn(retry);
-        }
-        if (success) {
-            logger.info(succeed);
-        } else {
-            logger.error(fail);
-        }
+    // BOOT CONFIGURATION
 
-        return statusCode;
+    /*
+     * These queue the configuration on the ConfigurationEngine and return right away. Configurations that
+     * get modified for a device are copied first, as the shared constants may be applied concurrently.
+     * A device still holding the configuration it was last given is left alone, see ConfigFingerprints.
+     */
+
+    public ConfigurationEngine.Job configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, ConfigurationEngine.Job... dependencies) {
+        return configureTalonFX(motor, configuration, "TalonFX " + motor.getDeviceID() + detail, dependencies);
     }
 
-    private void retryMotorConfigurator(Supplier<StatusCode> func) {
-        retryConfigurator(logger, func,
-                "Successful motor configuration" + detail,
-                "Failed motor configuration" + detail,
-                "Retrying failed motor configuration" + detail
-        );
+    public ConfigurationEngine.Job configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, String device, ConfigurationEngine.Job... dependencies) {
+        var configurator = motor.getConfigurator();
+        return submit(device, key(motor), configuration,
+                TalonFXConfiguration::new, configurator::refresh, configurator::apply, dependencies);
     }
 
-    public RobustConfigurator(Logger logger) {
-        this.logger = logger;
-        this.detail = "";
+    public ConfigurationEngine.Job configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, int encoderId) {
+        return configureTalonFX(motor, configuration, encoderId, "TalonFX " + motor.getDeviceID() + detail);
     }
 
-    public RobustConfigurator(Logger logger, String name) {
-        this.logger = logger;
-        this.detail = " for " + name;
+    public ConfigurationEngine.Job configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, int encoderId, String device, ConfigurationEngine.Job... dependencies) {
+        TalonFXConfiguration copy = copy(configuration);
+        copy.Feedback.FeedbackRemoteSensorID = encoderId;
+        return configureTalonFX(motor, copy, device, dependencies);
     }
 
-    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration) {
-        var configurator = motor.getConfigurator();
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+    /**
+     * Configures both motors concurrently and makes the second follow the first once it is configured.
+     */
+    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, TalonFX motorFollower, boolean isOppositeMasterDirection) {
+        configureTalonFX(motor, configuration);
+        configureTalonFX(motorFollower, configuration)
+                .then(() -> motorFollower.setControl(new Follower(motor.getDeviceID(), isOppositeMasterDirection)));
     }
 
-    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, String device) {
-        var configurator = motor.getConfigurator();
-        this.detail = " for " + device;
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+    public ConfigurationEngine.Job configureCancoder(CANcoder encoder, MagnetSensorConfigs configuration, double angularOffset) {
+        return configureCancoder(encoder, configuration, angularOffset, "CANcoder " + encoder.getDeviceID() + detail);
     }
 
-    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, int encoderId) {
-        configuration.Feedback.FeedbackRemoteSensorID = encoderId;
-        configureTalonFX(motor, configuration);
+    public ConfigurationEngine.Job configureCancoder(CANcoder encoder, MagnetSensorConfigs configuration, double angularOffset, String device) {
+        MagnetSensorConfigs copy = copy(configuration, new MagnetSensorConfigs());
+        copy.withMagnetOffset(angularOffset);
+        var configurator = encoder.getConfigurator();
+        return submit(device, key(encoder), copy,
+                MagnetSensorConfigs::new, configurator::refresh, configurator::apply);
     }
 
-    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, int encoderId, String device) {
-        configuration.Feedback.FeedbackRemoteSensorID = encoderId;
-        this.detail = " for " + device;
-        configureTalonFX(motor, configuration);
+    @FunctionalInterface
+    private interface ConfigCall<T> {
+        StatusCode call(T configuration, double timeout);
     }
 
-    public void configureTalonFX(TalonFX motor, TalonFXConfiguration configuration, TalonFX motorFollower, boolean isOppositeMasterDirection) {
-        configureTalonFX(motor, configuration);
-        configureTalonFX(motorFollower, configuration);
+    private static <T extends ParentConfiguration> ConfigurationEngine.Job submit(
+            String device, String key, T desired, Supplier<T> blank,
+            ConfigCall<T> refresh, ConfigCall<T> apply, ConfigurationEngine.Job... dependencies) {
+        ConfigFingerprints fingerprints = ConfigFingerprints.getInstance();
+        String fingerprint = ConfigFingerprints.of(desired);
+
+        return ConfigurationEngine.getInstance().submit(device, key, (job, timeout) -> {
+            // Up to three blocking calls share the attempt's timeout
+            double callTimeout = timeout / 3;
+
+            // Reading back is much cheaper than applying, so check whether there is anything to do
+            if (RobotConfiguration.SKIP_UNCHANGED_CONFIGURATION && fingerprints.wasApplied(key, fingerprint)) {
+                T current = blank.get();
+                if (refresh.call(current, callTimeout).isOK()
+                        && fingerprints.matches(key, fingerprint, ConfigFingerprints.of(current))) {
+                    job.markUnchanged();
+                    return StatusCode.OK;
+                }
+            }
 
-        motorFollower.setControl(new Follower(motor.getDeviceID(), isOppositeMasterDirection));
+            fingerprints.forget(key);
+            StatusCode status = apply.call(desired, callTimeout);
+            if (status.isOK()) {
+                T current = blank.get();
+                if (refresh.call(current, callTimeout).isOK()) {
+                    fingerprints.record(key, fingerprint, ConfigFingerprints.of(current));
+                }
+            }
+            return status;
+        }, dependencies);
     }
 
-    public void setMotorNeutralMode(TalonFX motor, NeutralModeValue mode) {
-        var configurator = motor.getConfigurator();
-        var configuration = new MotorOutputConfigs();
-        retryMotorConfigurator(() -> configurator.refresh(configuration));
+    /**
+     * Identifies a device across configurators, e.g. "TalonFX/canivore/5".
+     */
+    private static String key(ParentDevice device) {
+        return device.getClass().getSimpleName() + "/" + device.getNetwork() + "/" + device.getDeviceID();
+    }
 
-        configuration.withNeutralMode(mode);
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+    private static TalonFXConfiguration copy(TalonFXConfiguration configuration) {
+        return copy(configuration, new TalonFXConfiguration());
+    }
 
+    private static <T extends ParentConfiguration> T copy(T configuration, T copy) {
+        copy.deserialize(configuration.serialize());
+        return copy;
     }
 
-    public void configureCancoder(CANcoder encoder, MagnetSensorConfigs configuration, double angularOffset) {
-        configuration.withMagnetOffset(angularOffset);
-        var configurator = encoder.getConfigurator();
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+    // RUNTIME CONFIGURATION
+
+    /*
+     * Changes made while the robot runs, queued on the ConfigurationEngine so the main loop never waits on
+     * a CAN round trip. Each attempt reads the current settings and applies them with the one change, the two
+     * calls sharing the attempt's timeout.
+     */
+
+    public ConfigurationEngine.Job setMotorNeutralMode(TalonFX motor, NeutralModeValue mode) {
+        var configurator = motor.getConfigurator();
+        return ConfigurationEngine.getInstance().submit("TalonFX " + motor.getDeviceID() + detail + " neutral mode", key(motor), (job, timeout) -> {
+            var configuration = new MotorOutputConfigs();
+            StatusCode status = configurator.refresh(configuration, timeout / 2);
+            if (!status.isOK()) {
+                return status;
+            }
+            return configurator.apply(configuration.withNeutralMode(mode), timeout / 2);
+        });
     }
 
-    public void configureCancoder(CANcoder encoder, MagnetSensorConfigs configuration, double angularOffset, String device) {
-        configuration.withMagnetOffset(angularOffset);
-        this.detail = " for " + device;
+    public ConfigurationEngine.Job setCancoderAngularOffset(CANcoder encoder, double angularOffset) {
         var configurator = encoder.getConfigurator();
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+        return ConfigurationEngine.getInstance().submit("CANcoder " + encoder.getDeviceID() + detail + " offset", key(encoder), (job, timeout) -> {
+            var configuration = new MagnetSensorConfigs();
+            StatusCode status = configurator.refresh(configuration, timeout / 2);
+            if (!status.isOK()) {
+                return status;
+            }
+            return configurator.apply(configuration.withMagnetOffset(angularOffset), timeout / 2);
+        });
     }
 
-    public void setCancoderAngularOffset(CANcoder encoder, double angularOffset) {
-        var configurator = encoder.getConfigurator();
-        var configuration = new MagnetSensorConfigs();
-        retryMotorConfigurator(() -> configurator.refresh(configuration));
+    /**
+     * @param limit - supply current limit in amps, the lower limit is kept at or below it
+     */
+    public ConfigurationEngine.Job setSupplyCurrentLimit(TalonFX motor, double limit) {
+        var configurator = motor.getConfigurator();
+        return ConfigurationEngine.getInstance().submit("TalonFX " + motor.getDeviceID() + detail + " supply limit", key(motor), (job, timeout) -> {
+            var configuration = new CurrentLimitsConfigs();
+            StatusCode status = configurator.refresh(configuration, timeout / 2);
+            if (!status.isOK()) {
+                return status;
+            }
+            return configurator.apply(configuration
+                    .withSupplyCurrentLimit(limit)
+                    .withSupplyCurrentLowerLimit(Math.min(configuration.SupplyCurrentLowerLimit, limit))
+                    .withSupplyCurrentLimitEnable(true), timeout / 2);
+        });
+    }
 
-        configuration.withMagnetOffset(angularOffset);
-        retryMotorConfigurator(() -> configurator.apply(configuration));
+    /**
+     * Replaces the slot 0 feedforward gains, leaving the feedback gains and gravity type as they are.
+     */
+    public ConfigurationEngine.Job setFeedforward(TalonFX motor, double kS, double kV, double kA, double kG) {
+        var configurator = motor.getConfigurator();
+        return ConfigurationEngine.getInstance().submit("TalonFX " + motor.getDeviceID() + detail + " feedforward", key(motor), (job, timeout) -> {
+            var configuration = new Slot0Configs();
+            StatusCode status = configurator.refresh(configuration, timeout / 2);
+            if (!status.isOK()) {
+                return status;
+            }
+            return configurator.apply(configuration.withKS(kS).withKV(kV).withKA(kA).withKG(kG), timeout / 2);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package org.tahomarobotics.robot.util;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Single-writer sequence lock for publishing primitive state between threads without blocking.
+ * <p>
+ * The writer brackets its plain field writes with {@link #beginWrite()} and {@link #endWrite()}.
+ * Readers copy the fields between {@link #beginRead()} and {@link #validate(long)}, retrying when the
+ * writer was active. Neither side allocates nor takes a monitor.
+ * <pre>
+ * long stamp;
+ * do {
+ *     stamp = lock.beginRead();
+ *     x = this.x;
+ * } while (!lock.validate(stamp));
+ * </pre>
+ */
+public final class SeqLock {
+
+    private volatile long sequence;
+
+    /**
+     * Marks the start of a write. Only one thread may ever write.
+     */
+    public void beginWrite() {
+        sequence = sequence + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Marks the end of a write, making the new values visible to readers.
+     */
+    public void endWrite() {
+        sequence = sequence + 1;
+    }
+
+    /**
+     * Waits out any write in progress and returns a stamp for {@link #validate(long)}.
+     */
+    public long beginRead() {
+        long stamp;
+        while (((stamp = sequence) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns true if no write happened since the stamp was taken, meaning the values read are consistent.
+     */
+    public boolean validate(long stamp) {
+        VarHandle.loadLoadFence();
+        return sequence == stamp;
+    }
+}
@@ -0,0 +1,167 @@
+package org.tahomarobotics.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.RobotConfiguration;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Central registry of every status signal the robot uses and the rate it needs in each robot mode.
+ * <p>
+ * Subsystems declare their signals and devices at construction. On each mode change the registry
+ * estimates the load per bus and applies the update frequencies off the main loop, since each apply
+ * waits on a CAN round trip. Devices are bus optimized once, so signals nobody declared stop being sent.
+ */
+public class SignalRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SignalRegistry.class);
+
+    private static final SignalRegistry INSTANCE = new SignalRegistry();
+
+    // Rough time on the wire per status frame, assuming each signal travels in its own frame
+    private static final double CLASSIC_FRAME_TIME = 130e-6; // Seconds, extended 8 byte frame at 1 Mbit/s with stuffing
+    private static final double FD_FRAME_TIME = 40e-6; // Seconds, FD frame at 1 / 5 Mbit/s
+    private static final double LOAD_WARNING_THRESHOLD = 0.8;
+
+    public enum Mode {
+        DISABLED,
+        AUTONOMOUS,
+        TELEOP,
+        TEST
+    }
+
+    /**
+     * Update frequencies in hertz for each robot mode.
+     */
+    public record Rates(double disabled, double autonomous, double teleop, double test) {
+
+        public static Rates constant(double frequency) {
+            return new Rates(frequency, frequency, frequency, frequency);
+        }
+
+        public static Rates enabled(double enabledFrequency, double disabledFrequency) {
+            return new Rates(disabledFrequency, enabledFrequency, enabledFrequency, enabledFrequency);
+        }
+
+        public double get(Mode mode) {
+            return switch (mode) {
+                case DISABLED -> disabled;
+                case AUTONOMOUS -> autonomous;
+                case TELEOP -> teleop;
+                case TEST -> test;
+            };
+        }
+
+        private Rates max(Rates other) {
+            return new Rates(
+                    Math.max(disabled, other.disabled),
+                    Math.max(autonomous, other.autonomous),
+                    Math.max(teleop, other.teleop),
+                    Math.max(test, other.test));
+        }
+    }
+
+    private record Entry(String canbus, BaseStatusSignal signal, Rates rates) {}
+
+    private final Map<BaseStatusSignal, Entry> entries = new IdentityHashMap<>();
+    private final List<ParentDevice> devices = new ArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Signal Registry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Mode mode = Mode.DISABLED;
+    private boolean optimized = false;
+
+    private SignalRegistry() {}
+
+    public static SignalRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Declares signals and the rates they need. A signal declared more than once gets the fastest rate
+     * asked for in each mode.
+     */
+    public synchronized void register(String canbus, Rates rates, BaseStatusSignal... signals) {
+        for (BaseStatusSignal signal : signals) {
+            entries.merge(signal, new Entry(canbus, signal, rates),
+                    (existing, added) -> new Entry(canbus, signal, existing.rates().max(added.rates())));
+        }
+    }
+
+    /**
+     * Declares devices whose undeclared signals should be turned off.
+     */
+    public synchronized void registerDevices(ParentDevice... devices) {
+        this.devices.addAll(Arrays.asList(devices));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Switches every declared signal to its rate for the mode, in the background.
+     */
+    public void apply(Mode mode) {
+        this.mode = mode;
+        executor.execute(() -> applyRates(mode));
+    }
+
+    /**
+     * Estimated fraction of the bus bandwidth used by the declared signals in a mode.
+     */
+    public synchronized double estimateLoad(String canbus, Mode mode) {
+        double frameTime = RobotConfiguration.RIO_BUS_NAME.equals(canbus) ? CLASSIC_FRAME_TIME : FD_FRAME_TIME;
+        double load = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.canbus().equals(canbus)) {
+                load += entry.rates().get(mode) * frameTime;
+            }
+        }
+        return load;
+    }
+
+    private synchronized void applyRates(Mode mode) {
+        // Group the signals by rate so each group is a single call
+        Map<Double, List<BaseStatusSignal>> groups = new TreeMap<>();
+        Set<String> buses = new TreeSet<>();
+        for (Entry entry : entries.values()) {
+            groups.computeIfAbsent(entry.rates().get(mode), rate -> new ArrayList<>()).add(entry.signal());
+            buses.add(entry.canbus());
+        }
+
+        groups.forEach((rate, signals) -> {
+            var status = BaseStatusSignal.setUpdateFrequencyForAll(rate, signals.toArray(BaseStatusSignal[]::new));
+            if (!status.isOK()) {
+                logger.error("Failed to set " + signals.size() + " signals to " + rate + " Hz: " + status);
+            }
+        });
+
+        // Only needed once; later frequency changes re-enable the declared signals on their own
+        if (!optimized) {
+            var status = ParentDevice.optimizeBusUtilizationForAll(devices.toArray(ParentDevice[]::new));
+            if (!status.isOK()) {
+                logger.error("Failed to optimize bus utilization: " + status);
+            }
+            optimized = true;
+        }
+
+        for (String canbus : buses) {
+            double load = estimateLoad(canbus, mode);
+            SmartDashboard.putNumber("CAN Load/" + canbus, load);
+            if (load > LOAD_WARNING_THRESHOLD) {
+                logger.warn("Estimated " + canbus + " bus load is " + Math.round(load * 100) + "% in " + mode);
+            } else {
+                logger.info("Estimated " + canbus + " bus load is " + Math.round(load * 100) + "% in " + mode);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.tahomarobotics.robot.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.wpilibj.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Refreshes the main loop's status signals once per cycle, with one batched call per CAN bus.
+ * <p>
+ * Signals registered here must be read with {@code getValueAsDouble()} / {@code getValue()} and never
+ * refreshed individually, so every subsystem and command sees the same sample within a cycle. The time
+ * a signal was received is available from its own {@code getTimestamp()}. Signals owned by the odometry
+ * thread are refreshed there by {@code waitForAll} and must not be registered.
+ * <p>
+ * {@link #refresh()} must only be called from the main loop.
+ */
+public class StatusSignalHub {
+    private static final Logger logger = LoggerFactory.getLogger(StatusSignalHub.class);
+
+    private static final StatusSignalHub INSTANCE = new StatusSignalHub();
+
+    private final Map<String, Set<BaseStatusSignal>> registered = new LinkedHashMap<>();
+
+    // Flattened per bus so refreshing does not iterate collections
+    private String[] buses = new String[0];
+    private BaseStatusSignal[][] signals = new BaseStatusSignal[0][];
+    private StatusCode[] statuses = new StatusCode[0];
+    private boolean changed = false;
+
+    private double timestamp = Double.NaN;
+
+    private StatusSignalHub() {}
+
+    public static StatusSignalHub getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds signals to the batched refresh of their bus. Registering a signal twice has no effect.
+     */
+    public void register(String canbus, BaseStatusSignal... signals) {
+        Set<BaseStatusSignal> set = registered.computeIfAbsent(canbus,
+                bus -> Collections.newSetFromMap(new IdentityHashMap<>()));
+        set.addAll(Arrays.asList(signals));
+        changed = true;
+    }
+
+    /**
+     * Refreshes every registered signal, one call per bus.
+     */
+    public void refresh() {
+        if (changed) {
+            rebuild();
+        }
+
+        for (int i = 0; i < buses.length; i++) {
+            StatusCode status = BaseStatusSignal.refreshAll(signals[i]);
+            if (!status.isOK() && statuses[i] != status) {
+                logger.warn("Failed to refresh " + signals[i].length + " signals on " + buses[i] + ": " + status);
+            }
+            statuses[i] = status;
+        }
+        timestamp = Timer.getFPGATimestamp();
+    }
+
+    private void rebuild() {
+        int count = registered.size();
+        buses = new String[count];
+        signals = new BaseStatusSignal[count][];
+        statuses = new StatusCode[count];
+
+        int i = 0;
+        for (var entry : registered.entrySet()) {
+            buses[i] = entry.getKey();
+            signals[i] = entry.getValue().toArray(BaseStatusSignal[]::new);
+            statuses[i] = StatusCode.OK;
+            i++;
+        }
+        changed = false;
+    }
+
+    /**
+     * FPGA time in seconds of the last refresh.
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Whether the last refresh of the bus succeeded. A bus without registered signals is always OK.
+     */
+    public boolean isOK(String canbus) {
+        return getStatus(canbus).isOK();
+    }
+
+    /**
+     * Status of the last refresh of the bus, OK for a bus without registered signals.
+     */
+    public StatusCode getStatus(String canbus) {
+        for (int i = 0; i < buses.length; i++) {
+            if (buses[i].equals(canbus)) {
+                return statuses[i];
+            }
+        }
+        return StatusCode.OK;
+    }
+}
@@ -6,11 +6,25 @@ import org.slf4j.LoggerFactory;
 
 public abstract class SubsystemIF extends SubsystemBase {
     protected final Logger logger;
+    private final int profilerSection;
 
     protected SubsystemIF() {
         this.logger = LoggerFactory.getLogger(this.getClass());
+        this.profilerSection = LoopProfiler.getInstance().register(getName() + " periodic");
     }
 
+    /**
+     * Times {@link #onPeriodic()} for the loop profiler; subsystems override that instead.
+     */
+    @Override
+    public final void periodic() {
+        long start = System.nanoTime();
+        onPeriodic();
+        LoopProfiler.getInstance().record(profilerSection, start);
+    }
+
+    public void onPeriodic() {}
+
     public SubsystemIF initialize() { return this; }
     public void onDisabledInit() {}
     public void onAutonomousInit() {}
@@ -19,41 +19,63 @@
  */
 package org.tahomarobotics.robot.util;
 
-import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.Timer;
 
 public class SwerveRateLimiter {
 
     private final double accelerationLimit;
-    private final SlewRateLimiter angularRateLimiter;
+    private final double angularAccelerationLimit;
 
     private final ChassisSpeeds output = new ChassisSpeeds();
-    private double previousTime = 0;
+    private double previousTime = Double.NaN;
 
 
     public SwerveRateLimiter(double accelerationLimit, double angularAccelerationLimit) {
         this.accelerationLimit = accelerationLimit;
-        angularRateLimiter = new SlewRateLimiter(angularAccelerationLimit);
+        this.angularAccelerationLimit = angularAccelerationLimit;
     }
 
     protected double getAccelerationLimit(ChassisSpeeds input) {
         return accelerationLimit;
     }
 
-    public ChassisSpeeds calculate(ChassisSpeeds input) {
+    /**
+     * Limit for a velocity change in the given direction, for limits that depend on it.
+     *
+     * @param direction - direction of the velocity change in radians, robot relative when the speeds are
+     */
+    protected double getAccelerationLimit(ChassisSpeeds input, double direction) {
+        return getAccelerationLimit(input);
+    }
 
-        if (Math.hypot(input.vxMetersPerSecond, input.vyMetersPerSecond) == 0.0) {
-            output.vxMetersPerSecond = input.vxMetersPerSecond;
-            output.vyMetersPerSecond = input.vyMetersPerSecond;
-            output.omegaRadiansPerSecond = input.omegaRadiansPerSecond;
-            return output;
-        }
+    /**
+     * Restarts limiting from the given speeds, e.g. the measured ones while disabled.
+     */
+    public void reset(ChassisSpeeds speeds) {
+        reset(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+    }
+
+    public void reset(double vx, double vy, double omega) {
+        output.vxMetersPerSecond = vx;
+        output.vyMetersPerSecond = vy;
+        output.omegaRadiansPerSecond = omega;
+    }
+
+    public ChassisSpeeds calculate(ChassisSpeeds input) {
         // calculate elapsed time
         double currentTime = Timer.getFPGATimestamp();
-        double elapsedTime = currentTime - previousTime;
+        double elapsedTime = Double.isNaN(previousTime) ? 0.0 : currentTime - previousTime;
         previousTime = currentTime;
 
+        return calculate(input, elapsedTime);
+    }
+
+    /**
+     * @param dt - time step in seconds
+     */
+    public ChassisSpeeds calculate(ChassisSpeeds input, double dt) {
         // determine delta velocities
         double dx = input.vxMetersPerSecond - output.vxMetersPerSecond;
         double dy = input.vyMetersPerSecond - output.vyMetersPerSecond;
@@ -63,15 +85,17 @@ public class SwerveRateLimiter {
         double mag = Math.sqrt(dx * dx + dy * dy);
 
         // limit delta speed
-        mag = Math.min(mag, getAccelerationLimit(input) * elapsedTime);
+        mag = Math.min(mag, getAccelerationLimit(input, dir) * dt);
 
         // add delta velocity to output
         output.vxMetersPerSecond += mag * Math.cos(dir);
         output.vyMetersPerSecond += mag * Math.sin(dir);
 
-        output.omegaRadiansPerSecond = angularRateLimiter.calculate(input.omegaRadiansPerSecond);
+        double maxAngularStep = angularAccelerationLimit * dt;
+        output.omegaRadiansPerSecond += MathUtil.clamp(input.omegaRadiansPerSecond - output.omegaRadiansPerSecond,
+                -maxAngularStep, maxAngularStep);
 
         return output;
     }
 
-}
\ No newline at end of file
+}
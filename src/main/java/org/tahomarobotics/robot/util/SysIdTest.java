@@ -1,30 +1,65 @@
 package org.tahomarobotics.robot.util;
 
-import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
+import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import org.tahomarobotics.robot.RobotConfiguration;
+
+import java.util.function.BooleanSupplier;
 
 import static edu.wpi.first.units.Units.*;
 
+/**
+ * Runs the SysId routines on a motor and fits its feedforward from the samples, without leaving the robot.
+ * <p>
+ * {@link #characterize} runs all four routines and then {@link #applyFit()}: a fit that explains the data well
+ * goes straight into the motor's slot 0 and is stored under the calibration name, for the subsystem to load at
+ * the next boot. The signals are only sampled fast enough in test mode, so it refuses to run in any other mode.
+ */
 public class SysIdTest extends SubsystemIF {
+    private static final int MIN_SAMPLES = 100;
+    private static final double MIN_R_SQUARED = 0.9;
+    private static final double SETTLE_TIME = 1.0; // Seconds between routines
+
     private final TalonFX motor;
+    private final StatusSignal<Angle> position;
+    private final StatusSignal<AngularVelocity> velocity;
+    private final StatusSignal<AngularAcceleration> acceleration;
+    private final StatusSignal<Voltage> voltage;
+
+    private final String calibration;
+    private final FeedforwardFit fit;
+    private final RobustConfigurator configurator = new RobustConfigurator();
 
     private final SysIdRoutine sysIdRoutine;
-    private final VoltageOut control = new VoltageOut(0);
+    private final VoltageOut control = new VoltageOut(0).withUpdateFreqHz(0);
 
-    public SysIdTest(SubsystemIF subsystem, TalonFX motor) {
+    /**
+     * @param calibration - name the fitted gains are stored under, see {@link CalibrationStore}
+     * @param gravity - whether the motor lifts a constant load, fitting kG
+     */
+    public SysIdTest(SubsystemIF subsystem, TalonFX motor, String canbus, ControlDispatcher.Channel channel,
+                     String calibration, boolean gravity) {
         this.motor = motor;
+        this.calibration = calibration;
+        this.fit = new FeedforwardFit(gravity);
+        position = motor.getPosition();
+        velocity = motor.getVelocity();
+        acceleration = motor.getAcceleration();
+        voltage = motor.getMotorVoltage();
 
-        BaseStatusSignal.setUpdateFrequencyForAll(250,
-                motor.getPosition(),
-                motor.getVelocity(),
-                motor.getMotorVoltage()
-        );
-
-        motor.optimizeBusUtilization();
+        // Only needs the high rate in test mode, where the routines are run
+        SignalRegistry.getInstance().register(canbus, RobotConfiguration.SYSID_RATES, position, velocity, acceleration, voltage);
+        SignalRegistry.getInstance().registerDevices(motor);
+        StatusSignalHub.getInstance().register(canbus, position, velocity, acceleration, voltage);
 
         sysIdRoutine = new SysIdRoutine(
                 new SysIdRoutine.Config(
@@ -33,11 +68,14 @@ public class SysIdTest extends SubsystemIF {
                         null,
                         null),
                 new SysIdRoutine.Mechanism(
-                        (Voltage volts) -> motor.setControl(control.withOutput(volts.in(Volts))),
-                        log -> log.motor("motor")
-                                .voltage(motor.getMotorVoltage().getValue())
-                                .linearPosition(Meters.of(motor.getPosition().getValueAsDouble()))
-                                .linearVelocity(MetersPerSecond.of(motor.getVelocity().getValueAsDouble())),
+                        (Voltage volts) -> channel.set(control.withOutput(volts.in(Volts)), volts.in(Volts)),
+                        log -> {
+                            log.motor("motor")
+                                    .voltage(voltage.getValue())
+                                    .linearPosition(Meters.of(position.getValueAsDouble()))
+                                    .linearVelocity(MetersPerSecond.of(velocity.getValueAsDouble()));
+                            fit.add(voltage.getValueAsDouble(), velocity.getValueAsDouble(), acceleration.getValueAsDouble());
+                        },
                         subsystem
                 )
         );
@@ -51,6 +89,59 @@ public class SysIdTest extends SubsystemIF {
         return sysIdRoutine.dynamic(direction);
     }
 
+    /**
+     * Runs every routine within the travel limits, then fits and applies the feedforward. Only runs in test mode,
+     * and stops without applying anything if the robot leaves it.
+     *
+     * @param minPosition - position the reverse routines stop at
+     * @param maxPosition - position the forward routines stop at
+     */
+    public Command characterize(double minPosition, double maxPosition) {
+        BooleanSupplier atMax = () -> position.getValueAsDouble() >= maxPosition;
+        BooleanSupplier atMin = () -> position.getValueAsDouble() <= minPosition;
+        Command routines = Commands.sequence(
+                Commands.runOnce(fit::reset),
+                sysIdQuasistatic(SysIdRoutine.Direction.kForward).until(atMax),
+                Commands.waitSeconds(SETTLE_TIME),
+                sysIdQuasistatic(SysIdRoutine.Direction.kReverse).until(atMin),
+                Commands.waitSeconds(SETTLE_TIME),
+                sysIdDynamic(SysIdRoutine.Direction.kForward).until(atMax),
+                Commands.waitSeconds(SETTLE_TIME),
+                sysIdDynamic(SysIdRoutine.Direction.kReverse).until(atMin),
+                Commands.runOnce(this::applyFit)
+        ).until(() -> !RobotState.isTest());
+
+        return Commands.either(
+                routines,
+                Commands.runOnce(() -> logger.error("Characterizing " + calibration + " only runs in test mode")),
+                RobotState::isTest
+        );
+    }
+
+    /**
+     * Fits the samples collected since the last characterization and, if the fit is good, applies and stores it.
+     *
+     * @return the applied fit, or null when rejected
+     */
+    public FeedforwardFit.Result applyFit() {
+        FeedforwardFit.Result result = fit.solve();
+        if (result == null) {
+            logger.error("Could not fit " + calibration + " from " + fit.getSamples() + " samples");
+            return null;
+        }
+
+        logger.info("Fitted " + calibration + " -> " + result);
+        if (result.samples() < MIN_SAMPLES || result.rSquared() < MIN_R_SQUARED
+                || result.kV() <= 0 || result.kS() < 0 || result.kA() < 0 || result.kG() < 0) {
+            logger.error("Rejected " + calibration + " fit, keeping the current gains");
+            return null;
+        }
+
+        configurator.setFeedforward(motor, result.kS(), result.kV(), result.kA(), result.kG());
+        CalibrationStore.getInstance().setAsync(calibration, result.toArray());
+        return result;
+    }
+
     @Override
     public double getEnergyUsed() {
         return 0;
@@ -0,0 +1,80 @@
+package org.tahomarobotics.robot.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for a camera that replays recorded observations from a text file, for testing off-robot.
+ * <p>
+ * Each line is the send time in seconds relative to the start of the replay followed by the
+ * {@link VisionObservation#parse(String, String, double)} format. Lines starting with '#' are ignored.
+ */
+public class FileVisionSource implements VisionSource {
+    private static final Logger logger = LoggerFactory.getLogger(FileVisionSource.class);
+
+    private final String name;
+    private final File file;
+
+    public FileVisionSource(String name, File file) {
+        this.name = name;
+        this.file = file;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void start(Consumer<VisionObservation> sink) {
+        Thread thread = new Thread(() -> replay(sink), "Vision " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void replay(Consumer<VisionObservation> sink) {
+        double start = Timer.getFPGATimestamp();
+        int count = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int split = line.indexOf(' ');
+                if (split < 0) {
+                    logger.warn("Malformed vision replay line: " + line);
+                    continue;
+                }
+
+                try {
+                    double sendTime = start + Double.parseDouble(line.substring(0, split));
+                    double wait = sendTime - Timer.getFPGATimestamp();
+                    if (wait > 0) {
+                        Thread.sleep((long) (wait * 1000));
+                    }
+                    sink.accept(VisionObservation.parse(name, line.substring(split + 1), Timer.getFPGATimestamp()));
+                    count++;
+                } catch (NumberFormatException e) {
+                    logger.warn("Malformed vision replay line: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read vision replay <" + file.getAbsolutePath() + ">", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logger.info("Finished replaying " + count + " vision observations from <" + file.getAbsolutePath() + ">");
+    }
+}
@@ -0,0 +1,70 @@
+package org.tahomarobotics.robot.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Receives observations from a coprocessor as one text line per UDP datagram.
+ * See {@link VisionObservation#parse(String, String, double)} for the format.
+ */
+public class UdpVisionSource implements VisionSource {
+    private static final Logger logger = LoggerFactory.getLogger(UdpVisionSource.class);
+
+    private static final int MAX_PACKET_SIZE = 512;
+
+    private final String name;
+    private final int port;
+
+    public UdpVisionSource(String name, int port) {
+        this.name = name;
+        this.port = port;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void start(Consumer<VisionObservation> sink) {
+        Thread thread = new Thread(() -> receive(sink), "Vision " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void receive(Consumer<VisionObservation> sink) {
+        DatagramSocket socket;
+        try {
+            socket = new DatagramSocket(port);
+        } catch (SocketException e) {
+            logger.error("Failed to open vision port " + port + " for " + name, e);
+            return;
+        }
+        logger.info("Listening for " + name + " vision observations on port " + port);
+
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                double receiveTime = Timer.getFPGATimestamp();
+
+                String line = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.US_ASCII);
+                sink.accept(VisionObservation.parse(name, line, receiveTime));
+            } catch (NumberFormatException e) {
+                logger.warn("Malformed vision packet from " + name + ": " + e.getMessage());
+            } catch (IOException e) {
+                logger.error("Vision receive failed for " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.tahomarobotics.robot.vision;
+
+public class VisionConstants {
+
+    public static final int UDP_PORT = 5810;
+    public static final String REPLAY_FILE = "vision_observations.txt";
+
+    public static final int QUEUE_CAPACITY = 64;
+    public static final int MAX_BATCH_SIZE = 16;
+    public static final double REORDER_WINDOW = 0.1; // Seconds observations are held so slower sources catch up
+
+    // Outlier rejection
+    public static final double MAX_AMBIGUITY = 0.2;
+    public static final double MAX_POSE_DISTANCE = 1.0; // Meters
+    public static final double MAX_TAG_DISTANCE = 5.0; // Meters
+    public static final int REJECTIONS_BEFORE_RESEED = 50;
+
+    // Standard deviations at one meter from a single tag, grown with the square of the distance
+    public static final double BASE_XY_STD_DEV = 0.05; // Meters
+    public static final double BASE_THETA_STD_DEV = 0.1; // Radians
+    public static final double SINGLE_TAG_THETA_STD_DEV = 1e6; // Radians, i.e. heading is trusted to the gyro
+}
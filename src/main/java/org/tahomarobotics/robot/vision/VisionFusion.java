@@ -0,0 +1,157 @@
+package org.tahomarobotics.robot.vision;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tahomarobotics.robot.chassis.PoseHistory;
+import org.tahomarobotics.robot.chassis.SwerveOdometry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.tahomarobotics.robot.vision.VisionConstants.*;
+
+/**
+ * Collects vision observations from any number of sources and fuses them into the pose estimator.
+ * <p>
+ * Sources submit from their own threads into a bounded queue. The main loop calls {@link #fuse} once per cycle,
+ * which rejects or applies a batch in timestamp order. The estimator is locked once per measurement, so the
+ * 250 Hz odometry update waits at most for a single measurement, never for a whole batch.
+ * <p>
+ * The estimator discards every measurement newer than one being added, so nothing older than the last fused
+ * observation of any source is ever added. To keep a slower camera's frames, observations are held for
+ * {@link VisionConstants#REORDER_WINDOW} and merged by timestamp with those of the other sources first.
+ */
+public class VisionFusion {
+    private static final Logger logger = LoggerFactory.getLogger(VisionFusion.class);
+
+    private static final Comparator<VisionObservation> BY_TIMESTAMP = Comparator.comparingDouble(VisionObservation::timestamp);
+
+    private final PoseHistory history;
+
+    private final ArrayBlockingQueue<VisionObservation> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<VisionObservation> pending = new ArrayList<>(QUEUE_CAPACITY); // Held for reordering
+    private final double[] historicalPose = new double[3];
+
+    // Timestamp of the last fused observation of any source
+    private double lastFused = Double.NEGATIVE_INFINITY;
+    private int rejectionStreak = 0;
+
+    // Written by the main loop only
+    private volatile long accepted = 0;
+    private volatile long rejected = 0;
+    private volatile long stale = 0;
+    private final LongAdder dropped = new LongAdder();
+
+    public VisionFusion(PoseHistory history) {
+        this.history = history;
+    }
+
+    public void addSource(VisionSource source) {
+        logger.info("Adding vision source " + source.getName());
+        source.start(this::submit);
+    }
+
+    /**
+     * Queues an observation for fusion. Safe to call from any thread; drops the observation if the queue is full.
+     */
+    public void submit(VisionObservation observation) {
+        if (!queue.offer(observation)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Fuses the queued observations older than the reorder window in timestamp order. Must only be called from
+     * the main loop.
+     */
+    public void fuse(SwerveOdometry odometry) {
+        queue.drainTo(pending, QUEUE_CAPACITY - pending.size());
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Merge the sources, so the oldest observation is always added first
+        pending.sort(BY_TIMESTAMP);
+
+        double horizon = Timer.getFPGATimestamp() - REORDER_WINDOW;
+        int count = 0;
+        while (count < pending.size() && count < MAX_BATCH_SIZE && pending.get(count).timestamp() <= horizon) {
+            fuse(odometry, pending.get(count));
+            count++;
+        }
+
+        // Keep the rest for the next cycle, removing from the end does not copy
+        int size = pending.size();
+        for (int i = count; i < size; i++) {
+            pending.set(i - count, pending.get(i));
+        }
+        for (int i = size - 1; i >= size - count; i--) {
+            pending.remove(i);
+        }
+    }
+
+    private void fuse(SwerveOdometry odometry, VisionObservation observation) {
+        // Adding it would discard the newer measurements already fused
+        if (observation.timestamp() <= lastFused || !history.sample(observation.timestamp(), historicalPose)) {
+            stale++;
+            return;
+        }
+        if (!isPlausible(observation)) {
+            rejected++;
+            rejectionStreak++;
+            return;
+        }
+
+        double distance = Math.max(observation.averageTagDistance(), 1.0);
+        double scale = distance * distance / observation.tagCount();
+        double xyStdDev = BASE_XY_STD_DEV * scale;
+        double thetaStdDev = observation.tagCount() > 1 ? BASE_THETA_STD_DEV * scale : SINGLE_TAG_THETA_STD_DEV;
+
+        // Locks the estimator for this measurement only
+        odometry.addVisionMeasurement(observation.timestamp(), observation.x(), observation.y(),
+                observation.theta(), xyStdDev, thetaStdDev);
+
+        lastFused = observation.timestamp();
+        rejectionStreak = 0;
+        accepted++;
+    }
+
+    private boolean isPlausible(VisionObservation observation) {
+        if (observation.tagCount() < 1 || observation.averageTagDistance() > MAX_TAG_DISTANCE) {
+            return false;
+        }
+        if (observation.tagCount() == 1 && observation.ambiguity() > MAX_AMBIGUITY) {
+            return false;
+        }
+
+        double error = Math.hypot(
+                observation.x() - historicalPose[PoseHistory.X],
+                observation.y() - historicalPose[PoseHistory.Y]);
+
+        // After a long run of rejections the estimate itself is suspect, so let multi-tag solutions reseed it
+        boolean reseed = rejectionStreak >= REJECTIONS_BEFORE_RESEED && observation.tagCount() > 1;
+        return error <= MAX_POSE_DISTANCE || reseed;
+    }
+
+    // GETTERS
+
+    public long getAcceptedCount() {
+        return accepted;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    public long getStaleCount() {
+        return stale;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
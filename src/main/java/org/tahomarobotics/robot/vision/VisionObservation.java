@@ -0,0 +1,46 @@
+package org.tahomarobotics.robot.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A field relative robot pose measured by a camera.
+ *
+ * @param source - name of the producing source
+ * @param timestamp - FPGA time in seconds when the frame was captured
+ * @param ambiguity - pose ambiguity reported by the coprocessor, 0 for multi-tag solutions
+ * @param tagCount - number of tags used in the solution
+ * @param averageTagDistance - average distance to the tags in meters
+ */
+public record VisionObservation(String source, double timestamp, double x, double y, double theta,
+                                double ambiguity, int tagCount, double averageTagDistance) {
+
+    public Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(theta));
+    }
+
+    /**
+     * Parses the whitespace separated text form sent by the coprocessors:
+     * <pre>latency x y theta ambiguity tagCount averageTagDistance</pre>
+     * The capture latency in seconds is subtracted from the receive time, so coprocessor clocks need no sync.
+     *
+     * @throws NumberFormatException if the line is malformed
+     */
+    public static VisionObservation parse(String source, String line, double receiveTime) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length != 7) {
+            throw new NumberFormatException("Expected 7 fields but got " + fields.length + ": " + line);
+        }
+
+        return new VisionObservation(
+                source,
+                receiveTime - Double.parseDouble(fields[0]),
+                Double.parseDouble(fields[1]),
+                Double.parseDouble(fields[2]),
+                Double.parseDouble(fields[3]),
+                Double.parseDouble(fields[4]),
+                Integer.parseInt(fields[5]),
+                Double.parseDouble(fields[6])
+        );
+    }
+}
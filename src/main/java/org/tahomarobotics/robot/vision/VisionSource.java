@@ -0,0 +1,16 @@
+package org.tahomarobotics.robot.vision;
+
+import java.util.function.Consumer;
+
+/**
+ * Producer of vision observations, running on its own thread.
+ */
+public interface VisionSource {
+
+    String getName();
+
+    /**
+     * Starts producing observations into the sink. The sink is thread safe and never blocks.
+     */
+    void start(Consumer<VisionObservation> sink);
+}
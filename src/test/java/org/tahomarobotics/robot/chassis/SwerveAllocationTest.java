@@ -0,0 +1,98 @@
+package org.tahomarobotics.robot.chassis;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.tahomarobotics.robot.chassis.ChassisConstants.*;
+
+/**
+ * The per cycle swerve command path must not allocate once warmed up.
+ */
+class SwerveAllocationTest {
+    private static final int INPUT_COUNT = 1024;
+    private static final int WARMUP_CYCLES = 50_000;
+    private static final int CYCLES = 10_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private final ChassisSpeeds[] inputs = new ChassisSpeeds[INPUT_COUNT];
+    private final double[] targetSpeeds = new double[INPUT_COUNT];
+    private final double[] targetAngles = new double[INPUT_COUNT];
+    private final double[] currentAngles = new double[INPUT_COUNT];
+    private double sink;
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Thread allocation counting is not available on this JVM");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counting is not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    SwerveAllocationTest() {
+        // Joystick like targets, so both the acceleration and steer limits engage
+        Random random = new Random(2046);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = new ChassisSpeeds(
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_VELOCITY,
+                    (random.nextDouble() * 2 - 1) * MAX_ANGULAR_VELOCITY);
+            targetSpeeds[i] = (random.nextDouble() * 2 - 1) * MAX_VELOCITY;
+            targetAngles[i] = random.nextDouble() * 2 - 1;
+            currentAngles[i] = random.nextDouble();
+        }
+    }
+
+    @Test
+    void setpointGeneratorCycleDoesNotAllocate() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+                new PrimitiveSwerveKinematics(FRONT_LEFT_OFFSET, FRONT_RIGHT_OFFSET, BACK_LEFT_OFFSET, BACK_RIGHT_OFFSET),
+                MAX_VELOCITY, ACCELERATION_LIMIT, MAX_STEER_VELOCITY, SWERVE_MOTOR, DRIVE_REDUCTION, WHEEL_RADIUS,
+                DRIVE_STATOR_CURRENT_LIMIT, ROBOT_MASS);
+
+        Runnable cycles = () -> {
+            for (int i = 0; i < CYCLES; i++) {
+                generator.generate(inputs[i & (INPUT_COUNT - 1)], 0.02);
+                for (int module = 0; module < 4; module++) {
+                    sink += generator.getSpeed(module) + generator.getAngle(module);
+                }
+            }
+        };
+
+        assertEquals(0, allocatedBytes(cycles), "Bytes allocated by " + CYCLES + " setpoint generator cycles");
+    }
+
+    @Test
+    void moduleStateCycleDoesNotAllocate() {
+        Runnable cycles = () -> {
+            for (int i = 0; i < CYCLES; i++) {
+                int input = i & (INPUT_COUNT - 1);
+                double speed = SwerveModule.optimizeSpeed(targetSpeeds[input], targetAngles[input], currentAngles[input]);
+                double angle = SwerveModule.optimizeAngle(targetAngles[input], currentAngles[input]);
+                sink += speed / DRIVE_POSITION_COEFFICIENT + angle;
+            }
+        };
+
+        assertEquals(0, allocatedBytes(cycles), "Bytes allocated by " + CYCLES + " module state cycles");
+    }
+
+    /**
+     * Bytes the current thread allocates running the cycles, after running them enough to be compiled.
+     */
+    private static long allocatedBytes(Runnable cycles) {
+        for (int i = 0; i < WARMUP_CYCLES / CYCLES; i++) {
+            cycles.run();
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        cycles.run();
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+}
@@ -0,0 +1,96 @@
+package org.tahomarobotics.robot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The fit must recover the gains of a known feedforward from SysId like samples.
+ */
+class FeedforwardFitTest {
+    private static final double KS = 0.2;
+    private static final double KV = 3.1;
+    private static final double KA = 0.4;
+    private static final double KG = 0.5;
+
+    private static final double NOISE = 0.02; // Volts
+    private static final double TOLERANCE = 0.02;
+
+    @Test
+    void recoversGainsWithGravity() {
+        FeedforwardFit fit = new FeedforwardFit(true);
+        addRoutines(fit, KG);
+
+        FeedforwardFit.Result result = fit.solve();
+        assertNotNull(result);
+        assertEquals(KS, result.kS(), TOLERANCE);
+        assertEquals(KV, result.kV(), TOLERANCE);
+        assertEquals(KA, result.kA(), TOLERANCE);
+        assertEquals(KG, result.kG(), TOLERANCE);
+        assertTrue(result.rSquared() > 0.99, "R squared " + result.rSquared());
+    }
+
+    @Test
+    void recoversGainsWithoutGravity() {
+        FeedforwardFit fit = new FeedforwardFit(false);
+        addRoutines(fit, 0);
+
+        FeedforwardFit.Result result = fit.solve();
+        assertNotNull(result);
+        assertEquals(KS, result.kS(), TOLERANCE);
+        assertEquals(KV, result.kV(), TOLERANCE);
+        assertEquals(KA, result.kA(), TOLERANCE);
+        assertEquals(0, result.kG());
+        assertTrue(result.rSquared() > 0.99, "R squared " + result.rSquared());
+    }
+
+    @Test
+    void dropsSamplesAtStandstill() {
+        FeedforwardFit fit = new FeedforwardFit(true);
+        for (int i = 0; i < 1000; i++) {
+            fit.add(1.0, 0.0, 0.0);
+        }
+
+        assertEquals(0, fit.getSamples());
+        assertNull(fit.solve());
+    }
+
+    @Test
+    void resetForgetsSamples() {
+        FeedforwardFit fit = new FeedforwardFit(true);
+        addRoutines(fit, KG);
+        fit.reset();
+
+        assertEquals(0, fit.getSamples());
+        assertNull(fit.solve());
+    }
+
+    /**
+     * Adds samples of quasistatic and dynamic routines in both directions, simulated with the known gains.
+     */
+    private static void addRoutines(FeedforwardFit fit, double kG) {
+        Random random = new Random(2046);
+        double dt = 0.005;
+        for (int direction = -1; direction <= 1; direction += 2) {
+            // Quasistatic, ramping 0.5 V / s
+            simulate(fit, random, kG, direction, dt, 4.0, t -> 0.5 * t);
+            // Dynamic, a 2 V step
+            simulate(fit, random, kG, direction, dt, 1.5, t -> 2.0);
+        }
+    }
+
+    private static void simulate(FeedforwardFit fit, Random random, double kG, int direction, double dt,
+                                 double duration, DoubleUnaryOperator ramp) {
+        double velocity = 0;
+        for (double t = 0; t < duration; t += dt) {
+            // Gravity is held up first, the ramp drives the motion
+            double voltage = kG + direction * (KS + ramp.applyAsDouble(t));
+            double acceleration = (voltage - kG - KS * Math.signum(direction) - KV * velocity) / KA;
+            fit.add(voltage + random.nextGaussian() * NOISE, velocity, acceleration);
+            velocity += acceleration * dt;
+        }
+    }
+}